@@ -0,0 +1,278 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Compiles a loaded Database into a compact binary snapshot and opens such a
+ * snapshot again through a memory-mapped file, so a new session does not have
+ * to re-parse the CSV.
+ *
+ * The layout is a header (magic, version, length and CRC32C of the source CSV),
+ * a string table of UTF-8 titles, names and genres, and then one column per
+ * movie attribute: title id, release year, genre ids by offset and person ids
+ * by offset, five role slots per movie. All values are big-endian ints except
+ * the two longs in the header.
+ */
+public class CompiledCatalog {
+
+    private static final int MAGIC = 0x4D564442; // "MVDB"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".snapshot";
+    private static final int ROLES = Movie.ROLE_NAMES.length;
+
+    // largest region a single MappedByteBuffer can cover
+    private static final long MAX_MAP = Integer.MAX_VALUE;
+
+    /**
+     * Compiles the snapshot for a CSV ahead of time.
+     *
+     * @param args the CSV files to compile
+     */
+    public static void main(String[] args) throws IOException {
+        for (String filePath : args) {
+            Database database = new Database();
+            database.loadFromCSV(filePath);
+            System.out.println(database.getLoadStats());
+            Path csv = Paths.get(filePath);
+            compile(database, hash(csv), snapshotPathFor(csv));
+            System.out.println("Compiled " + database.movieMap.size() + " movies to " + snapshotPathFor(csv));
+        }
+    }
+
+    /**
+     * @param csv the source CSV
+     * @return where the snapshot for that CSV is kept
+     */
+    public static Path snapshotPathFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Hashes a file so a snapshot can be matched to the exact CSV it came from.
+     *
+     * @param path the file to hash
+     * @return the file length in the upper half and its CRC32C in the lower half
+     */
+    public static long hash(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            long size = channel.size();
+            for (long pos = 0; pos < size; pos += MAX_MAP) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAX_MAP, size - pos)));
+            }
+            return (size << 32) ^ crc.getValue();
+        }
+    }
+
+    /**
+     * Writes a snapshot of every movie in the database. The file is written
+     * next to its final location and moved into place, so a concurrent reader
+     * never sees a half-written snapshot.
+     *
+     * @param database   the loaded database
+     * @param sourceHash the hash of the CSV the database was loaded from
+     * @param snapshot   where to write the snapshot
+     */
+    public static void compile(Database database, long sourceHash, Path snapshot) throws IOException {
+        List<Movie> movies = new ArrayList<>(database.movieMap.values());
+        movies.sort(Comparator.comparing(Movie::getTitle));
+
+        PersonDictionary dictionary = database.getPersonDictionary();
+
+        // assign every distinct string an id, in first-seen order
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Movie movie : movies) {
+            intern(movie.getTitle(), stringIds, strings);
+            for (String genre : movie.getGenres()) {
+                intern(genre, stringIds, strings);
+            }
+            for (int role = 0; role < ROLES; role++) {
+                for (int person : movie.getPersonIds(role)) {
+                    intern(dictionary.nameOf(person), stringIds, strings);
+                }
+            }
+        }
+
+        Path temp = Files.createTempFile(snapshot.toAbsolutePath().getParent(), snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceHash);
+
+                // string table
+                byte[][] encoded = new byte[strings.size()][];
+                int offset = 0;
+                out.writeInt(strings.size());
+                out.writeInt(offset);
+                for (int i = 0; i < encoded.length; i++) {
+                    encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                    offset += encoded[i].length;
+                    out.writeInt(offset);
+                }
+                for (byte[] bytes : encoded) {
+                    out.write(bytes);
+                }
+
+                // movie columns
+                out.writeInt(movies.size());
+                for (Movie movie : movies) {
+                    out.writeInt(stringIds.get(movie.getTitle()));
+                }
+                for (Movie movie : movies) {
+                    out.writeInt(movie.getReleaseDate());
+                }
+                int genreOffset = 0;
+                out.writeInt(genreOffset);
+                for (Movie movie : movies) {
+                    genreOffset += movie.getGenres().size();
+                    out.writeInt(genreOffset);
+                }
+                for (Movie movie : movies) {
+                    for (String genre : movie.getGenres()) {
+                        out.writeInt(stringIds.get(genre));
+                    }
+                }
+                int roleOffset = 0;
+                out.writeInt(roleOffset);
+                for (Movie movie : movies) {
+                    for (int role = 0; role < ROLES; role++) {
+                        roleOffset += movie.getPersonIds(role).length;
+                        out.writeInt(roleOffset);
+                    }
+                }
+                for (Movie movie : movies) {
+                    for (int role = 0; role < ROLES; role++) {
+                        for (int person : movie.getPersonIds(role)) {
+                            out.writeInt(stringIds.get(dictionary.nameOf(person)));
+                        }
+                    }
+                }
+            }
+            try {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Opens a snapshot and adds its movies to the database, as long as the
+     * snapshot was compiled from a CSV with the given hash. People are
+     * interned into a dictionary of the snapshot's own, which the database
+     * only takes over once every movie has been decoded; a snapshot that
+     * turns out to be corrupt leaves the database exactly as it was.
+     *
+     * @param snapshot   the snapshot file
+     * @param sourceHash the hash of the CSV the caller wants to load
+     * @param database   the empty database to fill
+     * @return true if the movies were loaded, false if the snapshot is missing, stale or corrupt
+     */
+    public static boolean open(Path snapshot, long sourceHash, Database database) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return false;
+        }
+        PersonDictionary dictionary = new PersonDictionary();
+        List<Movie> movies;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() < 16 || channel.size() > MAX_MAP) {
+                return false;
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != sourceHash) {
+                return false;
+            }
+            movies = readMovies(in, dictionary);
+        } catch (RuntimeException e) {
+            // a truncated or corrupt snapshot is treated like a stale one
+            return false;
+        }
+        database.personDictionary = dictionary;
+        for (Movie movie : movies) {
+            database.addMovie(movie);
+        }
+        database.buildIndexes();
+        return true;
+    }
+
+    /**
+     * Decodes the string table and movie columns that follow the header.
+     */
+    private static List<Movie> readMovies(MappedByteBuffer in, PersonDictionary dictionary) {
+        int stringCount = in.getInt();
+        int[] stringOffsets = readInts(in, stringCount + 1);
+        byte[] stringData = new byte[stringOffsets[stringCount]];
+        in.get(stringData);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = new String(stringData, stringOffsets[i], stringOffsets[i + 1] - stringOffsets[i],
+                    StandardCharsets.UTF_8);
+        }
+
+        int movieCount = in.getInt();
+        int[] titles = readInts(in, movieCount);
+        int[] years = readInts(in, movieCount);
+        int[] genreOffsets = readInts(in, movieCount + 1);
+        int[] genreIds = readInts(in, genreOffsets[movieCount]);
+        int[] roleOffsets = readInts(in, movieCount * ROLES + 1);
+        int[] personIds = readInts(in, roleOffsets[movieCount * ROLES]);
+
+        // person id of each string, interned the first time a movie refers to it
+        int[] personOfString = new int[stringCount];
+        Arrays.fill(personOfString, -1);
+
+        List<Movie> movies = new ArrayList<>(movieCount);
+        for (int m = 0; m < movieCount; m++) {
+            Set<String> genres = new HashSet<>();
+            for (int g = genreOffsets[m]; g < genreOffsets[m + 1]; g++) {
+                genres.add(strings[genreIds[g]]);
+            }
+            int[][] people = new int[ROLES][];
+            for (int role = 0; role < ROLES; role++) {
+                int slot = m * ROLES + role;
+                int[] ids = new int[roleOffsets[slot + 1] - roleOffsets[slot]];
+                for (int p = 0; p < ids.length; p++) {
+                    int string = personIds[roleOffsets[slot] + p];
+                    if (personOfString[string] < 0) {
+                        personOfString[string] = dictionary.intern(strings[string]);
+                    }
+                    ids[p] = personOfString[string];
+                }
+                people[role] = PersonDictionary.sortedDistinct(ids, ids.length);
+            }
+            movies.add(new Movie(strings[titles[m]], years[m], genres, people, dictionary));
+        }
+        return movies;
+    }
+
+    private static int[] readInts(MappedByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static void intern(String value, Map<String, Integer> ids, List<String> strings) {
+        if (!ids.containsKey(value)) {
+            ids.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+}
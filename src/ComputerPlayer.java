@@ -0,0 +1,538 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * A computer opponent. It picks its move with a negamax search over the
+ * connection game: a move is legal when it follows the rules validateGuess
+ * enforces (unplayed, and sharing a person with the chain head that the
+ * player has used fewer than {@link MovieGameModel#PERSON_LIMIT} times), a
+ * player with no legal move loses on time, and reaching
+ * {@link MovieGameModel#WINNING_SCORE} genre points wins.
+ *
+ * The search deepens one ply at a time until the per-turn time budget is
+ * spent, and keeps the best move of the deepest search that finished. Each
+ * depth spreads the root moves over several threads, each searching on its own
+ * copy of the position with alpha-beta pruning against the best root score
+ * found so far.
+ */
+public class ComputerPlayer {
+
+    // score of a won position; wins sooner score higher
+    private static final int WIN = 1_000_000;
+    private static final int MAX_DEPTH = 64;
+    // nodes searched between looks at the clock
+    private static final int CHECK_INTERVAL = 1024;
+    private static final int[] NO_PEOPLE = new int[0];
+
+    private final String name;
+    private final long budgetNanos;
+    private final int threads;
+
+    /**
+     * @param name         the name shown for the computer's seat
+     * @param budgetMillis how long to think per turn
+     * @param threads      how many threads to search with
+     */
+    public ComputerPlayer(String name, long budgetMillis, int threads) {
+        this.name = name;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * A computer player named "Computer" that searches on every core.
+     *
+     * @param budgetMillis how long to think per turn
+     */
+    public ComputerPlayer(long budgetMillis) {
+        this("Computer", budgetMillis, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return the name shown for the computer's seat
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Picks a move for the current player of a game.
+     *
+     * @param database the database the game is played on
+     * @param model    the game, with the computer as its current player
+     * @return the movie to play, or null if there is no legal move
+     */
+    public Movie chooseMove(Database database, MovieGameModel model) {
+        return search(Position.of(database, model));
+    }
+
+    /**
+     * Copies the game position now, then searches it on a background thread, so
+     * the game can carry on changing while the computer thinks.
+     *
+     * @param database the database the game is played on
+     * @param model    the game, with the computer as its current player
+     * @return a future completing with the movie to play, or null if there is no legal move
+     */
+    public CompletableFuture<Movie> chooseMoveAsync(Database database, MovieGameModel model) {
+        Position root = Position.of(database, model);
+        CompletableFuture<Movie> move = new CompletableFuture<>();
+        Thread thinker = new Thread(() -> {
+            try {
+                move.complete(search(root));
+            } catch (RuntimeException | Error e) {
+                move.completeExceptionally(e);
+            }
+        }, "computer-player");
+        thinker.setDaemon(true);
+        thinker.start();
+        return move;
+    }
+
+    /**
+     * Iterative deepening over the root moves of a position.
+     *
+     * @return the best move found, or null if there is none
+     */
+    Movie search(Position root) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int count = root.generateMoves(0, 0);
+        if (count == 0) {
+            return null;
+        }
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = root.moveAt(0, count - 1 - i);
+        }
+        if (count == 1) {
+            return root.movie(order[0]);
+        }
+
+        int bestMove = order[0];
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            int[] values = new int[count];
+            AtomicInteger next = new AtomicInteger();
+            AtomicInteger alpha = new AtomicInteger(-WIN - 1);
+            AtomicBoolean timedOut = new AtomicBoolean();
+            int searchDepth = depth;
+            int[] rootOrder = order;
+            IntStream.range(0, Math.min(threads, count)).parallel().forEach(worker -> {
+                Position position = root.copy(deadline);
+                try {
+                    for (int i = next.getAndIncrement(); i < count && !timedOut.get(); i = next.getAndIncrement()) {
+                        values[i] = position.searchRoot(rootOrder[i], searchDepth, alpha.get());
+                        alpha.accumulateAndGet(values[i], Math::max);
+                    }
+                } catch (SearchTimeout e) {
+                    timedOut.set(true);
+                }
+            });
+            if (timedOut.get()) {
+                break;
+            }
+
+            // best first for the next depth, and stop once the outcome is forced
+            Integer[] ranked = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                ranked[i] = i;
+            }
+            Arrays.sort(ranked, (a, b) -> Integer.compare(values[b], values[a]));
+            int[] reordered = new int[count];
+            for (int i = 0; i < count; i++) {
+                reordered[i] = order[ranked[i]];
+            }
+            order = reordered;
+            bestMove = order[0];
+            if (Math.abs(values[ranked[0]]) >= WIN - MAX_DEPTH) {
+                break;
+            }
+        }
+        return root.movie(bestMove);
+    }
+
+    /**
+     * Thrown out of the search when the time budget runs out.
+     */
+    private static class SearchTimeout extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SearchTimeout() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A game position that moves are played on and taken back in place. Player
+     * 0 is the one to move at the root.
+     */
+    static class Position {
+        private final Database database;
+        private final int[] offsets;
+        private final int[] neighbourIds;
+        private final int[] weights;
+        // whether each movie id scores for the selected genre
+        private final boolean[] scoring;
+
+        private final boolean[] played;
+        // times each player has connected through each person id, capped at the limit
+        private final byte[][] uses;
+        // how many people each player has used up, so move generation can skip looking for them
+        private final int[] atLimit = new int[2];
+        private final int[] scores;
+        private int head;
+
+        // people whose use count a move raised, so it can be taken back
+        private int[] undo = new int[64];
+        private int undoSize;
+        // per ply: candidate moves packed as (scores, usable, movie id), and the head's used-up people
+        private long[][] moves = new long[MAX_DEPTH + 2][];
+        private int[] usedUp = new int[16];
+
+        private long deadline;
+        private long nodeLimit;
+        private long nodes;
+
+        private Position(Database database, boolean[] scoring, boolean[] played, byte[][] uses, int[] scores,
+                         int head) {
+            this.database = database;
+            ConnectionGraph graph = database.getConnectionGraph();
+            this.offsets = graph.offsets();
+            this.neighbourIds = graph.neighbourIds();
+            this.weights = graph.weights();
+            this.scoring = scoring;
+            this.played = played;
+            this.uses = uses;
+            this.scores = scores;
+            this.head = head;
+            for (int player = 0; player < 2; player++) {
+                for (byte count : uses[player]) {
+                    if (count >= MovieGameModel.PERSON_LIMIT) {
+                        atLimit[player]++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Copies the position of a game, from the point of view of its current player.
+         */
+        static Position of(Database database, MovieGameModel model) {
+            int movieCount = database.getMovieCount();
+            String genre = model.getSelectedGenre();
+            boolean[] scoring = new boolean[movieCount];
+            for (int id = 0; id < movieCount; id++) {
+                scoring[id] = database.getMovie(id).getGenres().contains(genre);
+            }
+            boolean[] played = new boolean[movieCount];
+            for (Movie movie : model.getPlayedMovies()) {
+                int id = database.getMovieId(movie);
+                if (id >= 0) {
+                    played[id] = true;
+                }
+            }
+            Player me = model.getCurrentPlayer();
+            Player opponent = model.getOpponentPlayer();
+            byte[][] uses = {usesOf(me, database), usesOf(opponent, database)};
+            int[] scores = {me.getScore(), opponent.getScore()};
+            Movie head = model.getLastFiveMovies().peekLast();
+            return new Position(database, scoring, played, uses, scores, database.getMovieId(head));
+        }
+
+        /**
+         * The opening position of a game started on a movie, with the player to
+         * move having no points and nobody having used anyone. No movie scores.
+         */
+        static Position start(Database database, int movieId) {
+            int movieCount = database.getMovieCount();
+            boolean[] played = new boolean[movieCount];
+            played[movieId] = true;
+            int personCount = database.getPersonIndex().personCount();
+            return new Position(database, new boolean[movieCount], played,
+                    new byte[][] {new byte[personCount], new byte[personCount]}, new int[2], movieId);
+        }
+
+        /**
+         * Moves an opening position made by {@link #start} to another movie.
+         */
+        void restartAt(int movieId) {
+            played[head] = false;
+            played[movieId] = true;
+            head = movieId;
+        }
+
+        private static byte[] usesOf(Player player, Database database) {
+            PersonDictionary dictionary = database.getPersonDictionary();
+            byte[] uses = new byte[database.getPersonIndex().personCount()];
+            for (Map.Entry<String, Integer> entry : player.getConnections().entrySet()) {
+                int person = dictionary.idOf(entry.getKey());
+                if (person >= 0 && person < uses.length) {
+                    uses[person] = (byte) Math.min(entry.getValue(), MovieGameModel.PERSON_LIMIT);
+                }
+            }
+            return uses;
+        }
+
+        /**
+         * @return a copy with its own mutable state, for one search thread
+         */
+        Position copy(long deadline) {
+            Position copy = new Position(database, scoring, played.clone(),
+                    new byte[][] {uses[0].clone(), uses[1].clone()}, scores.clone(), head);
+            copy.deadline = deadline;
+            return copy;
+        }
+
+        Movie movie(int id) {
+            return database.getMovie(id);
+        }
+
+        int moveAt(int ply, int index) {
+            return Integer.MAX_VALUE - (int) (moves[ply][index] & Integer.MAX_VALUE);
+        }
+
+        /**
+         * Plays a root move and searches the replies to the given depth.
+         *
+         * @return the value of the move for player 0
+         */
+        int searchRoot(int move, int depth, int alpha) {
+            int previousHead = head;
+            int undoMark = undoSize;
+            boolean scored = play(0, move);
+            int value = scores[0] >= MovieGameModel.WINNING_SCORE
+                    ? WIN - 1
+                    : -negamax(1, depth - 1, 1, -WIN - 1, -alpha);
+            takeBack(0, move, previousHead, undoMark, scored);
+            return value;
+        }
+
+        /**
+         * Solves the position for the player to move as a pure connection game,
+         * where genre points do not count and a player with no legal move loses.
+         *
+         * @param depth     how many moves ahead to look
+         * @param nodeLimit the most positions to visit before giving up
+         * @return 1 if the player to move can force a win within depth moves,
+         *         -1 if the opponent can, 0 if neither or the node limit ran out
+         */
+        int solve(int depth, long nodeLimit) {
+            this.nodeLimit = nodes + nodeLimit;
+            try {
+                return solve(0, depth, 0);
+            } catch (SearchTimeout e) {
+                return 0;
+            }
+        }
+
+        private int solve(int player, int depth, int ply) {
+            if (++nodes > nodeLimit) {
+                throw new SearchTimeout();
+            }
+            if (depth == 0) {
+                return hasMove(player) ? 0 : -1;
+            }
+            int count = collectMoves(ply, player, Integer.MAX_VALUE);
+            int result = -1;
+            for (int i = 0; i < count; i++) {
+                int move = moveAt(ply, i);
+                if (depth == 1) {
+                    // the reply only needs the new head and played set; this player's uses do not matter to it
+                    int previousHead = head;
+                    played[move] = true;
+                    head = move;
+                    boolean stuck = !hasMove(1 - player);
+                    played[move] = false;
+                    head = previousHead;
+                    if (stuck) {
+                        return 1;
+                    }
+                    result = 0;
+                    continue;
+                }
+                int previousHead = head;
+                int undoMark = undoSize;
+                boolean scored = play(player, move);
+                int value;
+                try {
+                    value = -solve(1 - player, depth - 1, ply + 1);
+                } finally {
+                    // also on giving up, so the position can be restarted elsewhere
+                    takeBack(player, move, previousHead, undoMark, scored);
+                }
+                if (value > 0) {
+                    return value;
+                }
+                result = Math.max(result, value);
+            }
+            return result;
+        }
+
+        /**
+         * @return the value of the position for the player to move
+         */
+        private int negamax(int player, int depth, int ply, int alpha, int beta) {
+            if ((++nodes & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+                throw new SearchTimeout();
+            }
+            int count = generateMoves(ply, player);
+            if (count == 0) {
+                // no legal move: the player runs out of time
+                return -WIN + ply;
+            }
+            if (depth == 0) {
+                return 100 * (scores[player] - scores[1 - player]) + Math.min(count, 20);
+            }
+            int best = -WIN - 1;
+            for (int i = count - 1; i >= 0; i--) {
+                int move = moveAt(ply, i);
+                int previousHead = head;
+                int undoMark = undoSize;
+                boolean scored = play(player, move);
+                int value = scores[player] >= MovieGameModel.WINNING_SCORE
+                        ? WIN - ply - 1
+                        : -negamax(1 - player, depth - 1, ply + 1, -beta, -alpha);
+                takeBack(player, move, previousHead, undoMark, scored);
+                if (value > best) {
+                    best = value;
+                    if (best > alpha) {
+                        alpha = best;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Lists the legal moves of a player from the current head into moves[ply],
+         * sorted so the most promising come last.
+         *
+         * @return the number of legal moves
+         */
+        int generateMoves(int ply, int player) {
+            int count = collectMoves(ply, player, Integer.MAX_VALUE);
+            if (count > 1) {
+                Arrays.sort(moves[ply], 0, count);
+            }
+            return count;
+        }
+
+        /**
+         * @return true if the player has a legal move from the current head
+         */
+        boolean hasMove(int player) {
+            return collectMoves(MAX_DEPTH + 1, player, 1) > 0;
+        }
+
+        /**
+         * Lists up to limit legal moves of a player into moves[ply], unsorted.
+         *
+         * @return the number listed
+         */
+        private int collectMoves(int ply, int player, int limit) {
+            if (head < 0) {
+                return 0;
+            }
+            int degree = offsets[head + 1] - offsets[head];
+            if (moves[ply] == null || moves[ply].length < degree) {
+                moves[ply] = new long[Math.max(degree, 16)];
+            }
+            long[] keys = moves[ply];
+
+            int usedUpCount = 0;
+            for (int person : atLimit[player] == 0 ? NO_PEOPLE : database.getMovie(head).getAllPersonIds()) {
+                if (person < uses[player].length && uses[player][person] >= MovieGameModel.PERSON_LIMIT) {
+                    if (usedUpCount == usedUp.length) {
+                        usedUp = Arrays.copyOf(usedUp, usedUpCount * 2);
+                    }
+                    usedUp[usedUpCount++] = person;
+                }
+            }
+
+            int count = 0;
+            for (int k = offsets[head]; k < offsets[head + 1]; k++) {
+                int candidate = neighbourIds[k];
+                if (played[candidate]) {
+                    continue;
+                }
+                int usable = weights[k];
+                if (usedUpCount > 0) {
+                    Movie movie = database.getMovie(candidate);
+                    for (int u = 0; u < usedUpCount; u++) {
+                        if (movie.getRoleMask(usedUp[u]) != 0) {
+                            usable--;
+                        }
+                    }
+                }
+                if (usable > 0) {
+                    long scores = scoring[candidate] ? 1 : 0;
+                    keys[count++] = scores << 62 | (long) usable << 31 | (Integer.MAX_VALUE - candidate);
+                    if (count == limit) {
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Plays a legal move for a player, raising the use count of every shared
+         * person they had not used up, as validateGuess does.
+         *
+         * @return true if the move scored a genre point
+         */
+        private boolean play(int player, int move) {
+            int[] a = database.getMovie(head).getAllPersonIds();
+            int[] b = database.getMovie(move).getAllPersonIds();
+            byte[] counts = uses[player];
+            int i = 0;
+            int j = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    int person = a[i];
+                    if (counts[person] < MovieGameModel.PERSON_LIMIT) {
+                        if (++counts[person] == MovieGameModel.PERSON_LIMIT) {
+                            atLimit[player]++;
+                        }
+                        if (undoSize == undo.length) {
+                            undo = Arrays.copyOf(undo, undoSize * 2);
+                        }
+                        undo[undoSize++] = person;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            played[move] = true;
+            head = move;
+            if (scoring[move]) {
+                scores[player]++;
+                return true;
+            }
+            return false;
+        }
+
+        private void takeBack(int player, int move, int previousHead, int undoMark, boolean scored) {
+            byte[] counts = uses[player];
+            while (undoSize > undoMark) {
+                if (counts[undo[--undoSize]]-- == MovieGameModel.PERSON_LIMIT) {
+                    atLimit[player]--;
+                }
+            }
+            played[move] = false;
+            head = previousHead;
+            if (scored) {
+                scores[player]--;
+            }
+        }
+    }
+}
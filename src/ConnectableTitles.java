@@ -0,0 +1,100 @@
+import java.util.*;
+
+/**
+ * The titles that could legally be played next, ranked for autocomplete. It is
+ * worked out once per round from the {@link HintEngine}'s legal moves, and
+ * keeps their positions in the {@link TitleTrie}'s sorted titles in ascending
+ * order. The titles matching a prefix form a range of positions, so each
+ * keystroke only looks at the legal moves inside that range, and keeps the
+ * best few in a bounded heap.
+ *
+ * A move ranks higher if it scores for the selected genre, then if more
+ * movies connect to it, then by title.
+ */
+class ConnectableTitles {
+
+    static final ConnectableTitles NONE = new ConnectableTitles(null, new int[0], new long[0]);
+
+    private final TitleTrie titles;
+    // ascending positions of the legal moves, and the ranking key of each; larger keys rank higher
+    private final int[] positions;
+    private final long[] keys;
+
+    private ConnectableTitles(TitleTrie titles, int[] positions, long[] keys) {
+        this.titles = titles;
+        this.positions = positions;
+        this.keys = keys;
+    }
+
+    /**
+     * Ranks the legal next moves.
+     *
+     * @param titles     the titles suggestions are drawn from
+     * @param legalMoves every legal next move
+     * @param engine     the engine the moves came from, for how well connected each is
+     * @return the ranked moves
+     */
+    static ConnectableTitles of(TitleTrie titles, List<HintEngine.Hint> legalMoves, HintEngine engine) {
+        // position and ranking key of every move, position in the high half so one sort orders them
+        long[] byPosition = new long[legalMoves.size()];
+        long[] unsortedKeys = new long[legalMoves.size()];
+        int count = 0;
+        for (HintEngine.Hint move : legalMoves) {
+            int position = titles.indexOf(move.getMovie().getTitle().toLowerCase());
+            if (position < 0) {
+                continue;
+            }
+            long scores = move.scoresGenre() ? 1 : 0;
+            long popularity = Math.min(engine.neighbourCount(move.getMovie()), Integer.MAX_VALUE);
+            // positions are title-ordered, so invert them to prefer earlier titles
+            unsortedKeys[count] = scores << 62 | popularity << 31 | (Integer.MAX_VALUE - position);
+            byPosition[count] = (long) position << 32 | count;
+            count++;
+        }
+        Arrays.sort(byPosition, 0, count);
+        int[] positions = new int[count];
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = (int) (byPosition[i] >>> 32);
+            keys[i] = unsortedKeys[(int) byPosition[i]];
+        }
+        return new ConnectableTitles(titles, positions, keys);
+    }
+
+    /**
+     * @return the number of legal moves
+     */
+    int size() {
+        return positions.length;
+    }
+
+    /**
+     * Picks the best legal moves among a range of titles.
+     *
+     * @param from  the position of the first title in the range
+     * @param to    one past the position of the last title in the range
+     * @param limit the most titles to return
+     * @return up to limit titles, best first
+     */
+    List<String> best(int from, int to, int limit) {
+        int k = Arrays.binarySearch(positions, from);
+        if (k < 0) {
+            k = -k - 1;
+        }
+        // min-heap of the best keys seen, so the weakest kept entry is on top
+        PriorityQueue<Long> top = new PriorityQueue<>();
+        for (; k < positions.length && positions[k] < to && limit > 0; k++) {
+            if (top.size() < limit) {
+                top.add(keys[k]);
+            } else if (keys[k] > top.peek()) {
+                top.poll();
+                top.add(keys[k]);
+            }
+        }
+        String[] best = new String[top.size()];
+        for (int i = best.length - 1; i >= 0; i--) {
+            best[i] = titles.title(Integer.MAX_VALUE - (int) (top.poll() & Integer.MAX_VALUE));
+        }
+        return Arrays.asList(best);
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Which movies connect to which: two movies are neighbours when at least one
+ * person is credited in both. Stored in compressed sparse row form, like
+ * {@link PersonMovieIndex}: the neighbours of movie m are
+ * neighbourIds[offsets[m]] up to neighbourIds[offsets[m + 1]], in ascending
+ * order, and weights holds the number of people each pair shares.
+ *
+ * The graph is built once per Database and never modified, so it can be
+ * queried from any thread.
+ */
+public class ConnectionGraph {
+
+    // movies handled by one fork-join leaf
+    private static final int MIN_BLOCK = 256;
+
+    private final int[] offsets;
+    private final int[] neighbourIds;
+    private final int[] weights;
+
+    private ConnectionGraph(int[] offsets, int[] neighbourIds, int[] weights) {
+        this.offsets = offsets;
+        this.neighbourIds = neighbourIds;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds the graph in two parallel passes over the movies: one to count the
+     * neighbours of each movie, one to fill them in. Each movie's row is found
+     * by walking the movie lists of its people in the person index. Each
+     * worker thread allocates its two movie-sized scratch arrays once and
+     * reuses them for every row it handles in either pass.
+     *
+     * @param movies      the movies, where a movie's id is its position in the array
+     * @param personIndex the person index over those movies
+     * @param pool        the pool to run both passes on
+     * @return the graph
+     */
+    public static ConnectionGraph build(Movie[] movies, PersonMovieIndex personIndex, ForkJoinPool pool) {
+        int movieCount = movies.length;
+        ThreadLocal<int[][]> scratch = ThreadLocal.withInitial(() -> new int[][] {new int[movieCount], new int[movieCount]});
+        int[] offsets = new int[movieCount + 1];
+        pool.invoke(new RowTask(movies, personIndex, scratch, 0, 0, movieCount, offsets, null, null));
+        for (int m = 0; m < movieCount; m++) {
+            offsets[m + 1] += offsets[m];
+        }
+
+        int[] neighbourIds = new int[offsets[movieCount]];
+        int[] weights = new int[offsets[movieCount]];
+        // the fill pass marks rows past the count pass's marks, so the scratch needs no clearing
+        pool.invoke(new RowTask(movies, personIndex, scratch, movieCount, 0, movieCount,
+                offsets, neighbourIds, weights));
+        return new ConnectionGraph(offsets, neighbourIds, weights);
+    }
+
+    /**
+     * @return the number of movies in the graph
+     */
+    public int movieCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the number of connected pairs of movies
+     */
+    public int edgeCount() {
+        return neighbourIds.length / 2;
+    }
+
+    /**
+     * @param movieId a movie id
+     * @return the number of other movies it connects to
+     */
+    public int degree(int movieId) {
+        return offsets[movieId + 1] - offsets[movieId];
+    }
+
+    /**
+     * @param movieId a movie id
+     * @return the ids of the movies it connects to, in ascending order
+     */
+    public int[] neighbours(int movieId) {
+        return Arrays.copyOfRange(neighbourIds, offsets[movieId], offsets[movieId + 1]);
+    }
+
+    /**
+     * @param a a movie id
+     * @param b another movie id
+     * @return the number of people credited in both movies, or 0 if they do not connect
+     */
+    public int sharedPeople(int a, int b) {
+        int k = Arrays.binarySearch(neighbourIds, offsets[a], offsets[a + 1], b);
+        return k < 0 ? 0 : weights[k];
+    }
+
+    /**
+     * @param a a movie id
+     * @param b another movie id
+     * @return true if a different movie b shares at least one person with a
+     */
+    public boolean connected(int a, int b) {
+        return Arrays.binarySearch(neighbourIds, offsets[a], offsets[a + 1], b) >= 0;
+    }
+
+    /**
+     * @return the row offsets, indexed by movie id; callers must not modify it
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the neighbour ids of every row, back to back; callers must not modify it
+     */
+    int[] neighbourIds() {
+        return neighbourIds;
+    }
+
+    /**
+     * @return the shared-person count of every entry of {@link #neighbourIds()}; callers must not modify it
+     */
+    int[] weights() {
+        return weights;
+    }
+
+    /**
+     * Fork-join task over a range of movies. Without output arrays it stores
+     * each movie's degree in offsets[m + 1]; with them it fills the movie's
+     * row, which must already have its final offsets.
+     */
+    private static class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Movie[] movies;
+        private final PersonMovieIndex personIndex;
+        // the seen and shared arrays of the current worker, and what this pass adds to a row's mark
+        private final ThreadLocal<int[][]> scratch;
+        private final int markBase;
+        private final int from;
+        private final int to;
+        private final int[] offsets;
+        private final int[] neighbourIds;
+        private final int[] weights;
+
+        RowTask(Movie[] movies, PersonMovieIndex personIndex, ThreadLocal<int[][]> scratch, int markBase,
+                int from, int to, int[] offsets, int[] neighbourIds, int[] weights) {
+            this.movies = movies;
+            this.personIndex = personIndex;
+            this.scratch = scratch;
+            this.markBase = markBase;
+            this.from = from;
+            this.to = to;
+            this.offsets = offsets;
+            this.neighbourIds = neighbourIds;
+            this.weights = weights;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MIN_BLOCK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(movies, personIndex, scratch, markBase, from, mid, offsets, neighbourIds, weights),
+                        new RowTask(movies, personIndex, scratch, markBase, mid, to, offsets, neighbourIds, weights));
+                return;
+            }
+            int[] personOffsets = personIndex.offsets();
+            int[] personMovies = personIndex.movieIds();
+            // seen[k] == mark once movie k has been found as a neighbour of movie m; marks are
+            // unique to a row and a pass, so entries left from earlier rows never need clearing
+            int[][] arrays = scratch.get();
+            int[] seen = arrays[0];
+            int[] shared = arrays[1];
+            for (int m = from; m < to; m++) {
+                int mark = markBase + m + 1;
+                seen[m] = mark;
+                int count = 0;
+                int rowStart = neighbourIds == null ? 0 : offsets[m];
+                for (int person : movies[m].getAllPersonIds()) {
+                    for (int k = personOffsets[person]; k < personOffsets[person + 1]; k++) {
+                        int other = personMovies[k];
+                        if (seen[other] != mark) {
+                            seen[other] = mark;
+                            shared[other] = 0;
+                            if (neighbourIds != null) {
+                                neighbourIds[rowStart + count] = other;
+                            }
+                            count++;
+                        }
+                        shared[other]++;
+                    }
+                }
+                if (neighbourIds == null) {
+                    offsets[m + 1] = count;
+                    continue;
+                }
+                Arrays.sort(neighbourIds, rowStart, rowStart + count);
+                for (int k = rowStart; k < rowStart + count; k++) {
+                    weights[k] = shared[neighbourIds[k]];
+                }
+            }
+        }
+    }
+}
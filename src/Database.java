@@ -1,25 +1,108 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The Database class stores the information for all of the movies
  * in an index.
+ *
+ * A Database is filled by one load and never modified afterwards, so once
+ * loaded it can be shared between threads freely. To pick up a changed
+ * catalog, load a new Database; see {@link MovieCatalog}.
  */
 public class Database {
 
-     Map<String, Map<String, Set<String>>> moviePeopleMap;
+    // byte ranges smaller than this are not worth a fork-join task of their own
+    private static final int MIN_CHUNK_BYTES = 64 * 1024;
+    // the order of the movie array, which makes a movie's id its position in it
+    private static final Comparator<Movie> BY_TITLE = Comparator.comparing(Movie::getTitle);
+
      Set<String> movieNames;
      Map<String, Movie> movieMap;
+     // the ids of every person in the movies; a snapshot load replaces it with the one it decoded into
+     PersonDictionary personDictionary;
+     // every movie sorted by title; a movie's id is its position here
+     Movie[] movies;
+     PersonMovieIndex personIndex;
+     // lowercase full title to movie, and lowercase title without " (year)" to candidates by year
+     Map<String, Movie> moviesByTitle;
+     Map<String, List<Movie>> moviesByBaseTitle;
+     // which movies connect to which, the neighbour count of each movie id, and the samplers built on it
+     ConnectionGraph graph;
+     int[] neighbourCounts;
+     MovieSampler sampler;
+     // the titles autocomplete looks up and the legal-move engine, both shared by every game on this database
+    private TitleIndex titleIndex;
+    private HintEngine hintEngine;
+    // runs the parallel parsing and graph build of a load
+    private final ForkJoinPool pool;
+    // what a background load is currently doing
+     private volatile LoadStage loadStage = LoadStage.NOT_STARTED;
+     // timings and row counts of the last load
+     private volatile LoadStats loadStats;
+
+    /**
+     * The steps a load goes through, in order. Snapshot loads skip parsing,
+     * and CSV loads skip straight from parsing to indexing.
+     */
+    public enum LoadStage {
+        NOT_STARTED, READING_SNAPSHOT, PARSING_CSV, BUILDING_INDEXES, WRITING_SNAPSHOT, READY
+    }
 
     /**
      * Initialize a new MovieGameModel.
      */
     public Database() {
-        moviePeopleMap = new HashMap<>();
+        this(new PersonDictionary(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initialize an empty database whose loads run their parallel work on the
+     * given pool instead of the common one, so a reload can stay out of the way
+     * of everything else that uses the common pool.
+     *
+     * @param pool the pool to parse and index on
+     */
+    public Database(ForkJoinPool pool) {
+        this(new PersonDictionary(), pool);
+    }
+
+    /**
+     * Initialize an empty database whose movies intern their people in the given
+     * dictionary, for databases built by hand from movies that already share one.
+     *
+     * @param personDictionary the dictionary of every movie added to this database
+     */
+    Database(PersonDictionary personDictionary) {
+        this(personDictionary, ForkJoinPool.commonPool());
+    }
+
+    private Database(PersonDictionary personDictionary, ForkJoinPool pool) {
+        this.pool = pool;
         movieNames = new HashSet<>();
         movieMap = new HashMap<>();
+        this.personDictionary = personDictionary;
+        movies = new Movie[0];
+        personIndex = PersonMovieIndex.build(movies, 0);
+        moviesByTitle = new HashMap<>();
+        moviesByBaseTitle = new HashMap<>();
+        titleIndex = TitleIndex.EMPTY;
+        graph = ConnectionGraph.build(movies, personIndex, pool);
+        neighbourCounts = new int[0];
+        sampler = new MovieSampler(movies, neighbourCounts);
+        hintEngine = new HintEngine(this);
     }
 
     /**
@@ -28,161 +111,293 @@ public class Database {
      * @param filePath The location of the CSV file.
      */
     public void loadFromCSV(String filePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] columns = parseCSVLine(line);
-
-                String title = columns[0].trim();
-                String peopleData = columns[1].trim();
-                String genreData = columns[2].trim();
-                String releaseDate = columns[3].trim();
-
-                // Process people data
-                Map<String, Set<String>> jobMap = new HashMap<>();
-                Set<String> actors = new HashSet<>();
-                Set<String> directors = new HashSet<>();
-                Set<String> writers = new HashSet<>();
-                Set<String> cinematographers = new HashSet<>();
-                Set<String> composers = new HashSet<>();
-
-                // Process entries
-                List<String> peopleEntries = parsePeopleData(peopleData);
-
-                for (String entry : peopleEntries) {
-                    if (entry.contains(":")) {
-                        String[] jobName = entry.split(":", 2);
-                        String job = jobName[0].trim().toLowerCase();
-                        String name = jobName[1].trim();
-                        name = name.replaceAll("^\"|\"$", "").trim();
-
-                        jobMap.computeIfAbsent(job, k -> new HashSet<>()).add(name);
-
-                        switch (job) {
-                            case "actor": actors.add(name); break;
-                            case "director": directors.add(name); break;
-                            case "writer": writers.add(name); break;
-                            case "cinematographer": cinematographers.add(name); break;
-                            case "composer": composers.add(name); break;
-                        }
-                    }
-                }
-
-                // Process genre data
-                Set<String> genres = parseGenres(genreData);
+        loadFromCSV(filePath, 0);
+    }
 
-                // Process release date
-                int releaseYear = 0;
-                if (!releaseDate.isEmpty()) {
-                    try {
-                        releaseYear = Integer.parseInt(releaseDate.substring(0, 4));
-                    } catch (NumberFormatException | IndexOutOfBoundsException e) {
-                        // No error
+    /**
+     * Load in and store data from CSV, splitting the file into byte ranges that
+     * are parsed in parallel on the database's fork-join pool.
+     *
+     * @param filePath   The location of the CSV file.
+     * @param chunkBytes Target size of each byte range, or 0 to size them from the core count.
+     */
+    void loadFromCSV(String filePath, int chunkBytes) {
+        loadStage = LoadStage.PARSING_CSV;
+        long start = System.nanoTime();
+        LoadStats stats = new LoadStats(filePath, LoadStats.Source.CSV);
+        loadStats = stats;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            stats.bytes = size;
+            if (chunkBytes <= 0) {
+                long perCore = size / (pool.getParallelism() * 4L);
+                chunkBytes = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(MIN_CHUNK_BYTES, perCore));
+            }
+            long[] bounds = splitOnLines(channel, size, chunkBytes);
+
+            List<ParsedChunk> chunks = new ArrayList<>(Collections.nCopies(bounds.length - 1, null));
+            pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1, chunks));
+
+            // merge in file order so a repeated title resolves the same way a sequential read would,
+            // and so every name gets the same id on every load
+            Map<String, String> genreNames = new HashMap<>();
+            for (ParsedChunk chunk : chunks) {
+                stats.readNanos += chunk.readNanos;
+                stats.tokenizeNanos += chunk.tokenizeNanos;
+                stats.malformedRows += chunk.malformedRows;
+                stats.rows += chunk.rows.size();
+                for (ParsedRow row : chunk.rows) {
+                    if (row.releaseYear == 0) {
+                        stats.yearlessRows++;
+                    }
+                    if (addMovie(row.toMovie(personDictionary, genreNames, stats))) {
+                        stats.duplicateTitles++;
                     }
                 }
-
-
-                String titleWithYear = title + " (" + releaseYear + ")";
-
-                moviePeopleMap.put(titleWithYear, jobMap);
-                movieNames.add(titleWithYear);
-
-                // Create movie object for Map
-                Movie movie = new Movie(
-                        titleWithYear,
-                        releaseYear,
-                        genres,
-                        directors, actors, writers, cinematographers, composers
-                );
-
-                movieMap.put(titleWithYear, movie);
             }
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
+            stats.error = e.getMessage();
             System.err.println("Failed to read CSV: " + e.getMessage());
         }
+        buildIndexes();
+        finishLoad(stats, start);
+        loadStage = LoadStage.READY;
     }
 
     /**
-     * Helper method to parse CSV line properly handling quoted fields.
+     * Helper method to record the end of a load and report its stats.
+     */
+    private void finishLoad(LoadStats stats, long start) {
+        stats.movies = movies.length;
+        stats.totalNanos = System.nanoTime() - start;
+        MetricsRegistry.global().recordLoad(stats);
+    }
+
+    /**
+     * Load the movies for a CSV file, preferring its compiled snapshot. The
+     * snapshot is only used when it was compiled from exactly this CSV; a
+     * missing or stale snapshot is rebuilt after the CSV has been parsed.
      *
-     * @param line The line to be processed.
+     * @param filePath The location of the CSV file.
      */
-    private String[] parseCSVLine(String line) {
-        List<String> tokens = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        boolean inQuotes = false;
+    public void load(String filePath) {
+        Path csv = Paths.get(filePath);
+        Path snapshot = CompiledCatalog.snapshotPathFor(csv);
+        long sourceHash;
+        try {
+            loadStage = LoadStage.READING_SNAPSHOT;
+            long start = System.nanoTime();
+            LoadStats stats = new LoadStats(filePath, LoadStats.Source.SNAPSHOT);
+            loadStats = stats;
+            sourceHash = CompiledCatalog.hash(csv);
+            if (CompiledCatalog.open(snapshot, sourceHash, this)) {
+                stats.bytes = Files.size(snapshot);
+                stats.rows = movies.length;
+                // everything but the index build is reading and decoding the snapshot
+                stats.readNanos = System.nanoTime() - start - stats.indexNanos;
+                finishLoad(stats, start);
+                loadStage = LoadStage.READY;
+                return;
+            }
+        } catch (IOException e) {
+            // unreadable CSV or snapshot; fall back to parsing, which reports the error
+            loadFromCSV(filePath);
+            return;
+        }
 
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
+        loadFromCSV(filePath);
+        loadStage = LoadStage.WRITING_SNAPSHOT;
+        long writeStart = System.nanoTime();
+        try {
+            CompiledCatalog.compile(this, sourceHash, snapshot);
+        } catch (IOException e) {
+            System.err.println("Failed to write snapshot: " + e.getMessage());
+        }
+        loadStats.snapshotWriteNanos = System.nanoTime() - writeStart;
+        // the stats were published before the snapshot was written
+        MetricsRegistry.global().set("load.snapshot_write_nanos", loadStats.snapshotWriteNanos);
+        loadStage = LoadStage.READY;
+    }
 
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                tokens.add(sb.toString());
-                sb = new StringBuilder();
-            } else {
-                sb.append(c);
+    /**
+     * Start {@link #load(String)} on a background thread and return at once.
+     * None of the query methods may be called until the returned future has
+     * completed; {@link #getLoadStage()} can be polled in the meantime.
+     *
+     * @param filePath The location of the CSV file.
+     * @return a future that completes with this database once it is ready
+     */
+    public CompletableFuture<Database> loadAsync(String filePath) {
+        CompletableFuture<Database> ready = new CompletableFuture<>();
+        Thread loader = new Thread(() -> {
+            try {
+                load(filePath);
+                ready.complete(this);
+            } catch (RuntimeException | Error e) {
+                ready.completeExceptionally(e);
             }
-        }
+        }, "database-loader");
+        // a game quit during loading should not wait for the load to finish
+        loader.setDaemon(true);
+        loader.start();
+        return ready;
+    }
 
-        // Add the last token
-        tokens.add(sb.toString());
+    /**
+     * @return the step the current or last load has reached
+     */
+    public LoadStage getLoadStage() {
+        return loadStage;
+    }
 
-        return tokens.toArray(new String[0]);
+    /**
+     * @return timings and row counts of the last load, or null if nothing has been loaded
+     */
+    public LoadStats getLoadStats() {
+        return loadStats;
     }
 
     /**
-     * Helper method to parse people data.
+     * Store a movie under its title, replacing any movie with the same title.
      *
-     * @param peopleData - Name of people
-     * @return - List of people
+     * @param movie The movie to add; its people must come from this database's dictionary.
+     * @return true if a movie with the same title was replaced
      */
-    private List<String> parsePeopleData(String peopleData) {
-        List<String> entries = new ArrayList<>();
-
-        // Remove any surrounding quotes if present
-        if (peopleData.startsWith("\"") && peopleData.endsWith("\"")) {
-            peopleData = peopleData.substring(1, peopleData.length() - 1);
+    boolean addMovie(Movie movie) {
+        if (movie.getPersonDictionary() != personDictionary) {
+            throw new IllegalArgumentException("movie " + movie.getTitle() + " uses another person dictionary");
         }
+        String titleWithYear = movie.getTitle();
+        movieNames.add(titleWithYear);
+        return movieMap.put(titleWithYear, movie) != null;
+    }
 
-        String[] parts = peopleData.split(", (?=actor:|director:|writer:|cinematographer:|composer:)");
+    /**
+     * Sort the movies into id order and build the indexes over them. Called
+     * once all movies have been added.
+     */
+    void buildIndexes() {
+        loadStage = LoadStage.BUILDING_INDEXES;
+        long start = System.nanoTime();
+        Movie[] sorted = movieMap.values().toArray(new Movie[0]);
+        Arrays.sort(sorted, BY_TITLE);
+        movies = sorted;
+        personIndex = PersonMovieIndex.build(sorted, personDictionary.size());
+        buildTitleMaps(sorted);
+        titleIndex = new TitleIndex(movieNames);
+        graph = ConnectionGraph.build(sorted, personIndex, pool);
+        neighbourCounts = new int[sorted.length];
+        for (int id = 0; id < sorted.length; id++) {
+            neighbourCounts[id] = graph.degree(id);
+        }
+        sampler = new MovieSampler(sorted, neighbourCounts);
+        hintEngine = new HintEngine(this);
+        if (loadStats != null) {
+            loadStats.indexNanos = System.nanoTime() - start;
+        }
+    }
 
-        for (String part : parts) {
-            if (part.contains(":")) {
-                entries.add(part.trim());
+    /**
+     * Helper method to index every movie by its lowercase title, and by each
+     * lowercase prefix of its title that ends just before a " (". Candidates
+     * for a prefix are ordered by year and then title, so the same name
+     * always resolves to the same movie.
+     *
+     * @param sorted every movie, sorted by title
+     */
+    private void buildTitleMaps(Movie[] sorted) {
+        Map<String, Movie> exact = new HashMap<>(sorted.length * 2);
+        Map<String, List<Movie>> base = new HashMap<>(sorted.length * 2);
+        for (Movie movie : sorted) {
+            String key = movie.getTitle().toLowerCase();
+            exact.put(key, movie);
+            for (int paren = key.indexOf(" ("); paren >= 0; paren = key.indexOf(" (", paren + 1)) {
+                base.computeIfAbsent(key.substring(0, paren), k -> new ArrayList<>(1)).add(movie);
             }
         }
-
-        return entries;
+        Comparator<Movie> byYear = Comparator.comparingInt(Movie::getReleaseDate).thenComparing(Movie::getTitle);
+        for (Map.Entry<String, List<Movie>> entry : base.entrySet()) {
+            List<Movie> candidates = entry.getValue();
+            candidates.sort(byYear);
+            entry.setValue(Collections.unmodifiableList(candidates));
+        }
+        moviesByTitle = exact;
+        moviesByBaseTitle = base;
     }
 
     /**
-     * Helper method to parse genre data.
+     * Helper method to cut a file into byte ranges that each end on a line boundary.
      *
-     * @param genreData - Name of genre
-     * @return - Set of genre
+     * @param channel    The open file.
+     * @param size       The size of the file in bytes.
+     * @param chunkBytes Target size of each range.
+     * @return range boundaries; range i is [bounds[i], bounds[i + 1])
      */
-    private Set<String> parseGenres(String genreData) {
-        Set<String> genres = new HashSet<>();
-
-        genreData = genreData.replaceAll("^\"|\"$", "");
+    private long[] splitOnLines(FileChannel channel, long size, int chunkBytes) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long target = chunkBytes;
+        while (target < size) {
+            // advance to just past the next newline at or after the target offset
+            long pos = target;
+            long boundary = size;
+            scan:
+            while (pos < size) {
+                buffer.clear();
+                int read = channel.read(buffer, pos);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        boundary = pos + i + 1;
+                        break scan;
+                    }
+                }
+                pos += read;
+            }
+            if (boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            target = boundary + chunkBytes;
+        }
+        bounds.add(size);
 
-        if (genreData.startsWith("{") && genreData.endsWith("}")) {
-            genreData = genreData.substring(1, genreData.length() - 1);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
         }
+        return result;
+    }
 
-        String[] genreParts = genreData.split("',\\s*'");
-        for (String part : genreParts) {
-            part = part.replace("'", "").trim();
-            if (part.startsWith("genres:")) {
-                String genre = part.substring("genres:".length()).trim();
-                genre = genre.replaceAll("^\"|\"$", "").trim();
-                genres.add(genre);
+    /**
+     * Helper method to parse every line of one byte range into movies.
+     *
+     * @param channel The open file.
+     * @param start   First byte of the range.
+     * @param end     One past the last byte of the range.
+     * @return the parsed rows, in file order, with the chunk's timings
+     */
+    private ParsedChunk parseChunk(FileChannel channel, long start, long end) throws IOException {
+        long readStart = System.nanoTime();
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
             }
         }
-
-        return genres;
+        buffer.flip();
+        CharBuffer text = StandardCharsets.UTF_8.decode(buffer);
+
+        long tokenizeStart = System.nanoTime();
+        RowCollector collector = new RowCollector();
+        new MovieRowTokenizer().tokenize(text.array(), text.arrayOffset() + text.position(),
+                text.arrayOffset() + text.limit(), collector);
+        long tokenizeEnd = System.nanoTime();
+        return new ParsedChunk(collector.rows, collector.malformedRows,
+                tokenizeStart - readStart, tokenizeEnd - tokenizeStart);
     }
 
     /**
@@ -192,14 +407,108 @@ public class Database {
      * @return allPeople
      */
     public Set<String> getPeopleByTitle(String title) {
-        Map<String, Set<String>> roleMap = moviePeopleMap.get(title);
-        if (roleMap == null) return Collections.emptySet();
+        Movie movie = movieMap.get(title);
+        if (movie == null) return Collections.emptySet();
+
+        return movie.getAllPeople();
+    }
+
+    /**
+     * @return the number of movies, which is one more than the largest movie id
+     */
+    public int getMovieCount() {
+        return movies.length;
+    }
+
+    /**
+     * Get a movie by the id given to it when the database was indexed.
+     *
+     * @param id - movie id
+     * @return Movie class object
+     */
+    public Movie getMovie(int id) {
+        return movies[id];
+    }
+
+    /**
+     * Get the id this database gave a movie. Titles are unique and ids are in
+     * title order, so this is a binary search; the same movie object is only
+     * ever looked up, never changed, so several databases can hold it.
+     *
+     * @param movie - the movie to look up
+     * @return its id, or -1 if the movie is not one of this database's
+     */
+    public int getMovieId(Movie movie) {
+        if (movie == null) {
+            return -1;
+        }
+        int id = Arrays.binarySearch(movies, movie, BY_TITLE);
+        return id >= 0 && movies[id] == movie ? id : -1;
+    }
+
+    /**
+     * Get the index from person id to the movies that person is credited in.
+     *
+     * @return the person index
+     */
+    public PersonMovieIndex getPersonIndex() {
+        return personIndex;
+    }
+
+    /**
+     * Return the ids of every movie a person is credited in.
+     *
+     * @param personId - id from the person dictionary
+     * @return movie ids in ascending order
+     */
+    public int[] moviesWithPerson(int personId) {
+        return personIndex.moviesWithPerson(personId);
+    }
 
-        Set<String> allPeople = new HashSet<>();
-        for (Set<String> names : roleMap.values()) {
-            allPeople.addAll(names);
+    /**
+     * Return the ids of every other movie that shares at least one person with a movie.
+     *
+     * @param movie - the movie to connect from
+     * @return movie ids in ascending order, without the movie itself
+     */
+    public int[] moviesSharingAnyPersonWith(Movie movie) {
+        int self = getMovieId(movie);
+        if (self >= 0) {
+            return graph.neighbours(self);
         }
-        return allPeople;
+        int[] offsets = personIndex.offsets();
+        int[] movieIds = personIndex.movieIds();
+
+        int[] found = new int[16];
+        int count = 0;
+        for (int person : movie.getAllPersonIds(personDictionary)) {
+            if (person >= personIndex.personCount()) {
+                continue;
+            }
+            for (int k = offsets[person]; k < offsets[person + 1]; k++) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = movieIds[k];
+            }
+        }
+        return PersonDictionary.sortedDistinct(found, count);
+    }
+
+    /**
+     * @return the graph of which movies share a person
+     */
+    public ConnectionGraph getConnectionGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the dictionary that maps the names of the people in every movie to ids.
+     *
+     * @return the person dictionary
+     */
+    public PersonDictionary getPersonDictionary() {
+        return personDictionary;
     }
 
     /**
@@ -208,11 +517,67 @@ public class Database {
      * @return Movie
      */
     public Movie getRandomMovie() {
-        Set<String> keySet = movieMap.keySet();
-        int randomIndex = new Random().nextInt(keySet.size());
-        String randomKey = (String) keySet.toArray()[randomIndex];
-        return movieMap.get(randomKey);
-//        return movieMap.get("Titanic (1997)");
+        return getRandomMovie(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Pick a uniformly random movie with the given random number generator,
+     * so a seeded generator gives a repeatable sequence of movies.
+     *
+     * @param rng - random number generator
+     * @return Movie, or null if the database is empty
+     */
+    public Movie getRandomMovie(Random rng) {
+        return movieOrNull(sampler.sample(rng));
+    }
+
+    /**
+     * Pick a random movie of one genre.
+     *
+     * @param genre - the genre the movie must have
+     * @param rng - random number generator
+     * @return Movie, or null if no movie has that genre
+     */
+    public Movie getRandomMovieByGenre(String genre, Random rng) {
+        return movieOrNull(sampler.sampleByGenre(genre, rng));
+    }
+
+    /**
+     * Pick a random movie released within a range of years.
+     *
+     * @param fromYear - earliest release year, inclusive
+     * @param toYear - latest release year, inclusive
+     * @param rng - random number generator
+     * @return Movie, or null if no movie was released in that range
+     */
+    public Movie getRandomMovieByYear(int fromYear, int toYear, Random rng) {
+        return movieOrNull(sampler.sampleByYear(fromYear, toYear, rng));
+    }
+
+    /**
+     * Pick a random movie that connects to at least a given number of other movies,
+     * so a game does not start on a near dead end.
+     *
+     * @param minNeighbours - fewest connectable movies allowed
+     * @param rng - random number generator
+     * @return Movie, or null if no movie is that well connected
+     */
+    public Movie getRandomMovieWithNeighbours(int minNeighbours, Random rng) {
+        return movieOrNull(sampler.sampleWithMinNeighbours(minNeighbours, rng));
+    }
+
+    /**
+     * Return how many other movies share at least one person with a movie.
+     *
+     * @param movieId - movie id
+     * @return number of connectable movies
+     */
+    public int getNeighbourCount(int movieId) {
+        return neighbourCounts[movieId];
+    }
+
+    private Movie movieOrNull(int id) {
+        return id < 0 ? null : movies[id];
     }
 
     /**
@@ -224,6 +589,26 @@ public class Database {
         return movieNames;
     }
 
+    /**
+     * Get the index autocomplete looks titles up in. It is built once with the
+     * other indexes and is immutable, so every game can share it.
+     *
+     * @return the title index
+     */
+    public TitleIndex getTitleIndex() {
+        return titleIndex;
+    }
+
+    /**
+     * Get the engine that finds legal next moves. Like the title index it is
+     * built once with the other indexes, and every game can share it.
+     *
+     * @return the hint engine
+     */
+    public HintEngine getHintEngine() {
+        return hintEngine;
+    }
+
     /**
      * Get the Movie class object by its unique name
      *
@@ -231,12 +616,172 @@ public class Database {
      * @return Movie class object
      */
     public Movie getMovieByName(String name) {
-        for (String key : movieMap.keySet()) {
-            if (key.equalsIgnoreCase(name) || key.toLowerCase().startsWith(name.toLowerCase() + " (")) {
-                return movieMap.get(key);
+        String key = name.toLowerCase();
+        Movie movie = moviesByTitle.get(key);
+        if (movie == null) {
+            List<Movie> candidates = moviesByBaseTitle.get(key);
+            if (candidates != null) {
+                movie = candidates.get(0);
+            }
+        }
+        if (movie == null) {
+            System.err.println("Movie not found in database.");
+        }
+        return movie;
+    }
+
+    /**
+     * Get every movie whose title is the given name followed by " (...)", such
+     * as all the remakes of a title.
+     *
+     * @param name - String name of movie, without the year
+     * @return matching movies ordered by release year, or an empty list
+     */
+    public List<Movie> getMoviesByBaseTitle(String name) {
+        return moviesByBaseTitle.getOrDefault(name.toLowerCase(), Collections.emptyList());
+    }
+
+    /**
+     * One row of the CSV, with names not yet interned.
+     */
+    private static class ParsedRow {
+        final String title;
+        final int releaseYear;
+        final Set<String> genres;
+        final List<List<String>> people;
+
+        ParsedRow(String title, int releaseYear, Set<String> genres, List<List<String>> people) {
+            this.title = title;
+            this.releaseYear = releaseYear;
+            this.genres = genres;
+            this.people = people;
+        }
+
+        /**
+         * Interns the names of this row and builds its movie.
+         *
+         * @param dictionary the dictionary to intern people into
+         * @param genreNames canonical instance of every genre name seen so far
+         * @param stats      the stats to add the genre and people times to
+         * @return the movie
+         */
+        Movie toMovie(PersonDictionary dictionary, Map<String, String> genreNames, LoadStats stats) {
+            long genreStart = System.nanoTime();
+            Set<String> canonicalGenres = new HashSet<>();
+            for (String genre : genres) {
+                canonicalGenres.add(genreNames.computeIfAbsent(genre, g -> g));
+            }
+            long peopleStart = System.nanoTime();
+            int[][] ids = new int[people.size()][];
+            for (int role = 0; role < ids.length; role++) {
+                ids[role] = dictionary.internAll(people.get(role));
+            }
+            stats.genreNanos += peopleStart - genreStart;
+            stats.peopleNanos += System.nanoTime() - peopleStart;
+            return new Movie(title + " (" + releaseYear + ")", releaseYear, canonicalGenres, ids, dictionary);
+        }
+    }
+
+    /**
+     * The rows of one byte range and what it took to parse them.
+     */
+    private static class ParsedChunk {
+        final List<ParsedRow> rows;
+        final int malformedRows;
+        final long readNanos;
+        final long tokenizeNanos;
+
+        ParsedChunk(List<ParsedRow> rows, int malformedRows, long readNanos, long tokenizeNanos) {
+            this.rows = rows;
+            this.malformedRows = malformedRows;
+            this.readNanos = readNanos;
+            this.tokenizeNanos = tokenizeNanos;
+        }
+    }
+
+    /**
+     * Gathers the tokens of each row of a byte range.
+     */
+    private static class RowCollector implements MovieRowTokenizer.Sink {
+        final List<ParsedRow> rows = new ArrayList<>();
+        int malformedRows;
+        private String title;
+        private List<List<String>> people = newRoleLists();
+        private Set<String> genres = new HashSet<>();
+
+        @Override
+        public void title(String title) {
+            this.title = title;
+        }
+
+        @Override
+        public void person(int role, String name) {
+            people.get(role).add(name);
+        }
+
+        @Override
+        public void genre(String genre) {
+            genres.add(genre);
+        }
+
+        @Override
+        public void endRow(int releaseYear) {
+            rows.add(new ParsedRow(title, releaseYear, genres, people));
+            people = newRoleLists();
+            genres = new HashSet<>();
+        }
+
+        @Override
+        public void discardRow() {
+            malformedRows++;
+            people = newRoleLists();
+            genres = new HashSet<>();
+        }
+
+        private static List<List<String>> newRoleLists() {
+            List<List<String>> lists = new ArrayList<>(Movie.ROLE_NAMES.length);
+            for (int role = 0; role < Movie.ROLE_NAMES.length; role++) {
+                lists.add(new ArrayList<>());
+            }
+            return lists;
+        }
+    }
+
+    /**
+     * Fork-join task that parses a run of byte ranges, splitting in half until
+     * a single range is left. Each range writes its rows into its own slot so
+     * the merge can walk them in file order.
+     */
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final List<ParsedChunk> results;
+
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to, List<ParsedChunk> results) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    results.set(from, parseChunk(channel, bounds[from], bounds[from + 1]));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
             }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(channel, bounds, from, mid, results),
+                    new ChunkTask(channel, bounds, mid, to, results));
         }
-        System.err.println("Movie not found in database.");
-        return null;
     }
 }
@@ -0,0 +1,382 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The shape of a Database's connection graph: its connected components, the
+ * degree histogram, the people and movies that connect the most, and the
+ * movies that connect to nothing.
+ *
+ * Components come from a parallel union-find over the person index. Every
+ * person's movies are joined into one set, which takes one pass over the
+ * credits rather than one over the much larger list of movie pairs. The sets
+ * live in an AtomicIntegerArray, and a union always hangs the root with the
+ * larger id under the smaller one with a compare-and-set, so threads can join
+ * sets without locks.
+ */
+public class GraphReport {
+
+    // persons handled by one fork-join leaf
+    private static final int MIN_BLOCK = 4096;
+
+    private final int movieCount;
+    private final int personCount;
+    private final long edgeCount;
+    private final int[] componentOf;
+    private final int[] componentSizes;
+    private final int[] degreeHistogram;
+    private final List<Map.Entry<String, Integer>> hubPeople;
+    private final List<Map.Entry<Movie, Integer>> hubMovies;
+    private final List<Movie> isolatedMovies;
+    private final long buildNanos;
+
+    private GraphReport(int movieCount, int personCount, long edgeCount, int[] componentOf, int[] componentSizes,
+                        int[] degreeHistogram, List<Map.Entry<String, Integer>> hubPeople,
+                        List<Map.Entry<Movie, Integer>> hubMovies, List<Movie> isolatedMovies, long buildNanos) {
+        this.movieCount = movieCount;
+        this.personCount = personCount;
+        this.edgeCount = edgeCount;
+        this.componentOf = componentOf;
+        this.componentSizes = componentSizes;
+        this.degreeHistogram = degreeHistogram;
+        this.hubPeople = hubPeople;
+        this.hubMovies = hubMovies;
+        this.isolatedMovies = isolatedMovies;
+        this.buildNanos = buildNanos;
+    }
+
+    /**
+     * Reports on a CSV's connection graph.
+     *
+     * @param args the CSV file, and optionally where to write the report
+     */
+    public static void main(String[] args) throws IOException {
+        String filePath = args.length > 0 ? args[0] : "cleaned_imdb_final.csv";
+        Database database = new Database();
+        database.load(filePath);
+        GraphReport report = build(database, 10);
+        System.out.println(report);
+        if (args.length > 1) {
+            report.write(Paths.get(args[1]));
+        }
+    }
+
+    /**
+     * Works out the report for a loaded database.
+     *
+     * @param database the loaded database
+     * @param topK     how many hub people and hub movies to list
+     * @return the report
+     */
+    public static GraphReport build(Database database, int topK) {
+        long start = System.nanoTime();
+        int movieCount = database.getMovieCount();
+        PersonMovieIndex personIndex = database.getPersonIndex();
+        ConnectionGraph graph = database.getConnectionGraph();
+
+        // components: union every person's movies, then label each movie by its root
+        AtomicIntegerArray parent = new AtomicIntegerArray(movieCount);
+        for (int m = 0; m < movieCount; m++) {
+            parent.set(m, m);
+        }
+        ForkJoinPool.commonPool().invoke(new UnionTask(personIndex, parent, 0, personIndex.personCount()));
+        int[] componentOf = new int[movieCount];
+        int[] rootComponent = new int[movieCount];
+        Arrays.fill(rootComponent, -1);
+        int componentCount = 0;
+        for (int m = 0; m < movieCount; m++) {
+            int root = find(parent, m);
+            if (rootComponent[root] < 0) {
+                rootComponent[root] = componentCount++;
+            }
+            componentOf[m] = rootComponent[root];
+        }
+        int[] componentSizes = new int[componentCount];
+        for (int m = 0; m < movieCount; m++) {
+            componentSizes[componentOf[m]]++;
+        }
+
+        // degrees, in power-of-two buckets: 0, 1, 2-3, 4-7, ...
+        int[] degreeHistogram = new int[32];
+        List<Movie> isolatedMovies = new ArrayList<>();
+        for (int m = 0; m < movieCount; m++) {
+            int degree = graph.degree(m);
+            degreeHistogram[degree == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(degree)]++;
+            if (degree == 0) {
+                isolatedMovies.add(database.getMovie(m));
+            }
+        }
+        int buckets = degreeHistogram.length;
+        while (buckets > 1 && degreeHistogram[buckets - 1] == 0) {
+            buckets--;
+        }
+
+        int personCount = 0;
+        for (int person = 0; person < personIndex.personCount(); person++) {
+            if (personIndex.movieCount(person) > 0) {
+                personCount++;
+            }
+        }
+        PersonDictionary people = database.getPersonDictionary();
+        List<Map.Entry<String, Integer>> hubPeople = new ArrayList<>();
+        for (int person : topIds(personIndex.personCount(), personIndex::movieCount, topK)) {
+            hubPeople.add(Map.entry(people.nameOf(person), personIndex.movieCount(person)));
+        }
+        List<Map.Entry<Movie, Integer>> hubMovies = new ArrayList<>();
+        for (int movie : topIds(movieCount, graph::degree, topK)) {
+            hubMovies.add(Map.entry(database.getMovie(movie), graph.degree(movie)));
+        }
+
+        return new GraphReport(movieCount, personCount, graph.edgeCount(), componentOf,
+                componentSizes, Arrays.copyOf(degreeHistogram, buckets), Collections.unmodifiableList(hubPeople),
+                Collections.unmodifiableList(hubMovies), Collections.unmodifiableList(isolatedMovies),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * @return the ids with the k largest values, largest first, skipping zeros
+     */
+    private static int[] topIds(int count, IntUnaryOperator value, int k) {
+        // min-heap of (value, id) packed into longs, so the smallest kept entry is on top
+        PriorityQueue<Long> top = new PriorityQueue<>();
+        for (int id = 0; id < count; id++) {
+            int v = value.applyAsInt(id);
+            if (v == 0 || k <= 0) {
+                continue;
+            }
+            // ties keep the smaller id
+            long key = (long) v << 32 | (Integer.MAX_VALUE - id);
+            if (top.size() < k) {
+                top.add(key);
+            } else if (key > top.peek()) {
+                top.poll();
+                top.add(key);
+            }
+        }
+        int[] ids = new int[top.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = Integer.MAX_VALUE - (int) (top.poll() & 0xFFFFFFFFL);
+        }
+        return ids;
+    }
+
+    private static int find(AtomicIntegerArray parent, int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int grandparent = parent.get(p);
+            // path halving; losing this race only means a longer walk next time
+            parent.compareAndSet(x, p, grandparent);
+            x = grandparent;
+        }
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) {
+                return;
+            }
+            if (a < b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            // a is the larger root; hang it under b unless another thread moved it first
+            if (parent.compareAndSet(a, a, b)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fork-join task joining the movies of a range of people.
+     */
+    private static class UnionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PersonMovieIndex personIndex;
+        private final AtomicIntegerArray parent;
+        private final int from;
+        private final int to;
+
+        UnionTask(PersonMovieIndex personIndex, AtomicIntegerArray parent, int from, int to) {
+            this.personIndex = personIndex;
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MIN_BLOCK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new UnionTask(personIndex, parent, from, mid), new UnionTask(personIndex, parent, mid, to));
+                return;
+            }
+            int[] offsets = personIndex.offsets();
+            int[] movieIds = personIndex.movieIds();
+            for (int person = from; person < to; person++) {
+                for (int k = offsets[person] + 1; k < offsets[person + 1]; k++) {
+                    union(parent, movieIds[offsets[person]], movieIds[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of movies in the graph
+     */
+    public int getMovieCount() {
+        return movieCount;
+    }
+
+    /**
+     * @return the number of people credited in at least one movie
+     */
+    public int getPersonCount() {
+        return personCount;
+    }
+
+    /**
+     * @return the number of connected pairs of movies
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return the number of connected components, isolated movies included
+     */
+    public int getComponentCount() {
+        return componentSizes.length;
+    }
+
+    /**
+     * @param movieId a movie id
+     * @return the component the movie belongs to, numbered in order of each component's lowest movie id
+     */
+    public int getComponent(int movieId) {
+        return componentOf[movieId];
+    }
+
+    /**
+     * @return the size of every component, largest first
+     */
+    public int[] getComponentSizes() {
+        int[] sizes = componentSizes.clone();
+        Arrays.sort(sizes);
+        for (int i = 0, j = sizes.length - 1; i < j; i++, j--) {
+            int t = sizes[i];
+            sizes[i] = sizes[j];
+            sizes[j] = t;
+        }
+        return sizes;
+    }
+
+    /**
+     * @return the number of movies in the largest component
+     */
+    public int getLargestComponentSize() {
+        int largest = 0;
+        for (int size : componentSizes) {
+            largest = Math.max(largest, size);
+        }
+        return largest;
+    }
+
+    /**
+     * @return movie counts by degree: bucket 0 holds degree 0, and bucket b
+     *         holds degrees from 2^(b-1) to 2^b - 1
+     */
+    public int[] getDegreeHistogram() {
+        return degreeHistogram.clone();
+    }
+
+    /**
+     * @return the people credited in the most movies, with their movie counts, most first
+     */
+    public List<Map.Entry<String, Integer>> getHubPeople() {
+        return hubPeople;
+    }
+
+    /**
+     * @return the movies connected to the most others, with their degrees, most first
+     */
+    public List<Map.Entry<Movie, Integer>> getHubMovies() {
+        return hubMovies;
+    }
+
+    /**
+     * @return the movies that share nobody with any other movie
+     */
+    public List<Movie> getIsolatedMovies() {
+        return isolatedMovies;
+    }
+
+    /**
+     * @return how long the report took to work out
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Writes the full report, isolated movies included, as text.
+     *
+     * @param path where to write it
+     */
+    public void write(Path path) throws IOException {
+        try (Writer file = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+             PrintWriter out = new PrintWriter(file)) {
+            out.println(this);
+            out.println();
+            out.println("component sizes:");
+            int[] sizes = getComponentSizes();
+            for (int i = 0; i < sizes.length; ) {
+                int j = i;
+                while (j < sizes.length && sizes[j] == sizes[i]) {
+                    j++;
+                }
+                out.println("  " + sizes[i] + " movies: " + (j - i));
+                i = j;
+            }
+            out.println("degree histogram:");
+            for (int b = 0; b < degreeHistogram.length; b++) {
+                String range = b == 0 ? "0" : b == 1 ? "1" : (1 << (b - 1)) + "-" + ((1 << b) - 1);
+                out.println("  " + range + ": " + degreeHistogram[b]);
+            }
+            out.println("hub people:");
+            for (Map.Entry<String, Integer> hub : hubPeople) {
+                out.println("  " + hub.getKey() + ": " + hub.getValue() + " movies");
+            }
+            out.println("hub movies:");
+            for (Map.Entry<Movie, Integer> hub : hubMovies) {
+                out.println("  " + hub.getKey().getTitle() + ": " + hub.getValue() + " neighbours");
+            }
+            out.println("isolated movies:");
+            for (Movie movie : isolatedMovies) {
+                out.println("  " + movie.getTitle());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d movies, %d people, %d edges; %d components, largest %d; %d isolated movies (%d ms)",
+                movieCount, personCount, edgeCount, getComponentCount(), getLargestComponentSize(),
+                isolatedMovies.size(), buildNanos / 1_000_000);
+    }
+}
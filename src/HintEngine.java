@@ -0,0 +1,192 @@
+import java.util.*;
+
+/**
+ * Answers "which movies could be played next" for a game in progress. A movie
+ * is a legal next move when it has not been played yet and shares at least one
+ * person with the chain head whom the current player has not already used
+ * {@link MovieGameModel#PERSON_LIMIT} times.
+ *
+ * Candidates come straight from the Database's {@link ConnectionGraph}, whose
+ * edge weights already count the shared people, so the only per-candidate
+ * work is discounting the few people the player has used up. An engine is
+ * immutable and can be shared by every game on the same Database.
+ */
+public class HintEngine {
+
+    /**
+     * One legal next move.
+     */
+    public static class Hint {
+        private final Movie movie;
+        private final int usableConnections;
+        private final boolean scoresGenre;
+
+        Hint(Movie movie, int usableConnections, boolean scoresGenre) {
+            this.movie = movie;
+            this.usableConnections = usableConnections;
+            this.scoresGenre = scoresGenre;
+        }
+
+        /**
+         * @return the movie to play
+         */
+        public Movie getMovie() {
+            return movie;
+        }
+
+        /**
+         * @return how many people it shares with the chain head that the player can still use
+         */
+        public int getUsableConnections() {
+            return usableConnections;
+        }
+
+        /**
+         * @return true if playing it scores a point for the selected genre
+         */
+        public boolean scoresGenre() {
+            return scoresGenre;
+        }
+
+        @Override
+        public String toString() {
+            return movie.getTitle() + " (" + usableConnections + (scoresGenre ? ", scores" : "") + ")";
+        }
+    }
+
+    private final Database database;
+    private final ConnectionGraph graph;
+    // the database's dictionary, which the players' connection names are looked up in
+    private final PersonDictionary people;
+
+    /**
+     * @param database the loaded database the games are played on
+     */
+    public HintEngine(Database database) {
+        this.database = database;
+        this.graph = database.getConnectionGraph();
+        this.people = database.getPersonDictionary();
+    }
+
+    /**
+     * Lists the legal next moves, best first: moves that score for the genre
+     * before those that do not, then by usable connections, then by title.
+     *
+     * @param head          the most recent movie in the chain
+     * @param played        every movie guessed so far, which cannot be played again
+     * @param player        the player about to move
+     * @param selectedGenre the genre that scores a point
+     * @param limit         the most hints to return
+     * @return the best legal moves, at most limit of them
+     */
+    public List<Hint> hints(Movie head, Set<Movie> played, Player player, String selectedGenre, int limit) {
+        int headId = database.getMovieId(head);
+        if (limit <= 0 || headId < 0) {
+            return Collections.emptyList();
+        }
+        int[] usedUp = usedUpPeople(head, player);
+
+        int[] offsets = graph.offsets();
+        int[] neighbourIds = graph.neighbourIds();
+        int[] weights = graph.weights();
+        // rank, usable count and movie id of every legal move, packed so one sort orders them
+        long[] ranked = new long[offsets[headId + 1] - offsets[headId]];
+        int count = 0;
+        for (int k = offsets[headId]; k < offsets[headId + 1]; k++) {
+            Movie candidate = database.getMovie(neighbourIds[k]);
+            if (played.contains(candidate)) {
+                continue;
+            }
+            int usable = weights[k];
+            for (int person : usedUp) {
+                if (candidate.getRoleMask(person) != 0) {
+                    usable--;
+                }
+            }
+            if (usable <= 0) {
+                continue;
+            }
+            long scores = candidate.getGenres().contains(selectedGenre) ? 1 : 0;
+            // larger keys are better moves; ids are title-ordered, so invert them to prefer earlier titles
+            ranked[count++] = scores << 62 | (long) usable << 31 | (Integer.MAX_VALUE - neighbourIds[k]);
+        }
+        Arrays.sort(ranked, 0, count);
+
+        List<Hint> hints = new ArrayList<>(Math.min(limit, count));
+        for (int i = count - 1; i >= 0 && hints.size() < limit; i--) {
+            long key = ranked[i];
+            int movieId = Integer.MAX_VALUE - (int) (key & Integer.MAX_VALUE);
+            int usable = (int) ((key >>> 31) & Integer.MAX_VALUE);
+            hints.add(new Hint(database.getMovie(movieId), usable, (key >>> 62) != 0));
+        }
+        return hints;
+    }
+
+    /**
+     * Checks whether the player has any legal next move, stopping at the first
+     * one found. Usually that is one of the first few neighbours of the head,
+     * so this is cheap enough to run after every guess.
+     *
+     * @param head   the most recent movie in the chain
+     * @param played every movie guessed so far, which cannot be played again
+     * @param player the player about to move
+     * @return true if some movie could be played next; false for a head that is not in the database
+     */
+    public boolean hasLegalMove(Movie head, Set<Movie> played, Player player) {
+        int headId = database.getMovieId(head);
+        if (headId < 0) {
+            return false;
+        }
+        int[] usedUp = usedUpPeople(head, player);
+
+        int[] offsets = graph.offsets();
+        int[] neighbourIds = graph.neighbourIds();
+        int[] weights = graph.weights();
+        for (int k = offsets[headId]; k < offsets[headId + 1]; k++) {
+            Movie candidate = database.getMovie(neighbourIds[k]);
+            if (played.contains(candidate)) {
+                continue;
+            }
+            int usable = weights[k];
+            for (int person : usedUp) {
+                if (candidate.getRoleMask(person) != 0) {
+                    usable--;
+                }
+            }
+            if (usable > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * How well connected a movie is, which stands in for its popularity: the
+     * number of movies it shares someone with.
+     *
+     * @param movie a movie of the database
+     * @return its neighbour count, or 0 for a movie that is not in the database
+     */
+    public int neighbourCount(Movie movie) {
+        int id = database.getMovieId(movie);
+        return id < 0 ? 0 : graph.degree(id);
+    }
+
+    /**
+     * @return ids of the head's people that the player has used as many times as allowed
+     */
+    private int[] usedUpPeople(Movie head, Player player) {
+        int[] usedUp = new int[0];
+        for (Map.Entry<String, Integer> entry : player.getConnections().entrySet()) {
+            if (entry.getValue() < MovieGameModel.PERSON_LIMIT) {
+                continue;
+            }
+            int person = people.idOf(entry.getKey());
+            if (person >= 0 && head.getRoleMask(person) != 0) {
+                usedUp = Arrays.copyOf(usedUp, usedUp.length + 1);
+                usedUp[usedUp.length - 1] = person;
+            }
+        }
+        return usedUp;
+    }
+}
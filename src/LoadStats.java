@@ -0,0 +1,221 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one Database load did and how long each step took. A load fills in
+ * the counters as it goes and the stats are read-only once it has finished;
+ * see {@link Database#getLoadStats()}.
+ *
+ * Reading and tokenizing run on several threads at once, so their times are
+ * summed over the threads and can add up to more than {@link #getTotalNanos()}.
+ * The other phases run on the loading thread alone.
+ */
+public class LoadStats {
+
+    /**
+     * Where the movies came from.
+     */
+    public enum Source {
+        CSV, SNAPSHOT
+    }
+
+    private final String filePath;
+    final Source source;
+
+    // phase times, in nanoseconds
+    long readNanos;
+    long tokenizeNanos;
+    long peopleNanos;
+    long genreNanos;
+    long indexNanos;
+    long snapshotWriteNanos;
+    long totalNanos;
+
+    // sizes and row counts
+    long bytes;
+    int rows;
+    int malformedRows;
+    int duplicateTitles;
+    int yearlessRows;
+    int movies;
+    String error;
+
+    LoadStats(String filePath, Source source) {
+        this.filePath = filePath;
+        this.source = source;
+    }
+
+    /**
+     * @return the CSV file the load was asked for
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * @return whether the movies were parsed from the CSV or read from its snapshot
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return time spent reading and decoding the file
+     */
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    /**
+     * @return time spent splitting rows into titles, credits, genres and years
+     */
+    public long getTokenizeNanos() {
+        return tokenizeNanos;
+    }
+
+    /**
+     * @return time spent turning credited names into person ids
+     */
+    public long getPeopleNanos() {
+        return peopleNanos;
+    }
+
+    /**
+     * @return time spent collecting each movie's genres
+     */
+    public long getGenreNanos() {
+        return genreNanos;
+    }
+
+    /**
+     * @return time spent building the indexes over the loaded movies
+     */
+    public long getIndexNanos() {
+        return indexNanos;
+    }
+
+    /**
+     * @return time spent writing a new snapshot after parsing the CSV, or 0 if none was written
+     */
+    public long getSnapshotWriteNanos() {
+        return snapshotWriteNanos;
+    }
+
+    /**
+     * @return wall-clock time of the whole load
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return size of the file the movies were read from
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return rows with all four columns; for a snapshot, the movies it holds
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return non-blank rows dropped for having fewer than four columns
+     */
+    public int getMalformedRows() {
+        return malformedRows;
+    }
+
+    /**
+     * @return rows whose title and year repeat an earlier row, which they replaced
+     */
+    public int getDuplicateTitles() {
+        return duplicateTitles;
+    }
+
+    /**
+     * @return rows with a missing or unparseable release date, kept with year 0
+     */
+    public int getYearlessRows() {
+        return yearlessRows;
+    }
+
+    /**
+     * @return the number of movies in the database after the load
+     */
+    public int getMovies() {
+        return movies;
+    }
+
+    /**
+     * @return why the file could not be read, or null if it was read in full
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return rows loaded per second of wall-clock time
+     */
+    public double getRowsPerSecond() {
+        return perSecond(rows);
+    }
+
+    /**
+     * @return bytes read per second of wall-clock time
+     */
+    public double getBytesPerSecond() {
+        return perSecond(bytes);
+    }
+
+    private double perSecond(double amount) {
+        return totalNanos == 0 ? 0 : amount * TimeUnit.SECONDS.toNanos(1) / totalNanos;
+    }
+
+    /**
+     * Publishes every value under "load.", replacing those of the previous load.
+     *
+     * @param registry the registry to publish to
+     */
+    public void publish(MetricsRegistry registry) {
+        registry.set("load.read_nanos", readNanos);
+        registry.set("load.tokenize_nanos", tokenizeNanos);
+        registry.set("load.people_nanos", peopleNanos);
+        registry.set("load.genre_nanos", genreNanos);
+        registry.set("load.index_nanos", indexNanos);
+        registry.set("load.snapshot_write_nanos", snapshotWriteNanos);
+        registry.set("load.total_nanos", totalNanos);
+        registry.set("load.bytes", bytes);
+        registry.set("load.rows", rows);
+        registry.set("load.malformed_rows", malformedRows);
+        registry.set("load.duplicate_titles", duplicateTitles);
+        registry.set("load.yearless_rows", yearlessRows);
+        registry.set("load.movies", movies);
+        registry.set("load.rows_per_second", Math.round(getRowsPerSecond()));
+        registry.set("load.bytes_per_second", Math.round(getBytesPerSecond()));
+        registry.add("load.count", 1);
+        if (error != null) {
+            registry.add("load.failures", 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Loaded %d movies from %s (%s) in %.1f ms: %d rows, %d bytes, "
+                        + "%.0f rows/s, %.1f MB/s; read %.1f ms, tokenize %.1f ms, people %.1f ms, "
+                        + "genres %.1f ms, index %.1f ms, snapshot write %.1f ms; "
+                        + "%d malformed, %d duplicate titles, %d without a year%s",
+                movies, filePath, source, millis(totalNanos), rows, bytes,
+                getRowsPerSecond(), getBytesPerSecond() / (1024 * 1024),
+                millis(readNanos), millis(tokenizeNanos), millis(peopleNanos),
+                millis(genreNanos), millis(indexNanos), millis(snapshotWriteNanos),
+                malformedRows, duplicateTitles, yearlessRows,
+                error == null ? "" : "; failed: " + error);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Named numeric metrics for the whole process, plus the stats of every
+ * database load so far, so load performance can be compared across runs
+ * and dataset sizes. Safe to use from any thread.
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, Long> values = new ConcurrentHashMap<>();
+    private final List<LoadStats> loads = new CopyOnWriteArrayList<>();
+
+    /**
+     * Initialize an empty registry. The game itself reports to {@link #global()}.
+     */
+    MetricsRegistry() {
+    }
+
+    /**
+     * @return the registry shared by the whole process
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param name  the metric name
+     * @param value its new value
+     */
+    public void set(String name, long value) {
+        values.put(name, value);
+    }
+
+    /**
+     * @param name  the metric name
+     * @param delta how much to add to its value, which starts at 0
+     */
+    public void add(String name, long delta) {
+        values.merge(name, delta, Long::sum);
+    }
+
+    /**
+     * @param name the metric name
+     * @return its value, or 0 if it has never been set
+     */
+    public long get(String name) {
+        return values.getOrDefault(name, 0L);
+    }
+
+    /**
+     * @return a copy of every metric, sorted by name
+     */
+    public SortedMap<String, Long> snapshot() {
+        return new TreeMap<>(values);
+    }
+
+    /**
+     * Keeps the stats of a finished load and publishes its values.
+     *
+     * @param stats the stats of the load
+     */
+    public void recordLoad(LoadStats stats) {
+        loads.add(stats);
+        stats.publish(this);
+    }
+
+    /**
+     * @return the stats of every recorded load, oldest first
+     */
+    public List<LoadStats> getLoads() {
+        return Collections.unmodifiableList(loads);
+    }
+}
@@ -5,17 +5,30 @@ import java.util.*;
  * writers, cinematographers, and composers.
  */
 public class Movie {
+    // role indices, in the same order as the constructor arguments
+    public static final int DIRECTOR = 0;
+    public static final int ACTOR = 1;
+    public static final int WRITER = 2;
+    public static final int CINEMATOGRAPHER = 3;
+    public static final int COMPOSER = 4;
+    static final String[] ROLE_NAMES = {"director", "actor", "writer", "cinematographer", "composer"};
+
     private String title;
     private int releaseDate;
     private Set<String> genres;
-    private Set<String> directors;
-    private Set<String> actors;
-    private Set<String> writers;
-    private Set<String> cinematographers;
-    private Set<String> composers;
+    // sorted, distinct person ids per role, indexed by the role constants above
+    private int[][] people;
+    // sorted, distinct ids of everyone credited in any role, and a bit per role for each of them
+    private final int[] allPeople;
+    private final byte[] roleMasks;
+    private final Set<String> allPeopleView;
+    // the dictionary every person id of this movie comes from
+    private final PersonDictionary dictionary;
 
     /**
-     * Constructs a new Movie object with the specified details.
+     * Constructs a new Movie object with the specified details. The people are
+     * interned in a dictionary of the movie's own; movies loaded by a Database
+     * share its dictionary instead.
      *
      * @param title            the title of the movie
      * @param releaseDate      the release year of the movie
@@ -33,14 +46,65 @@ public class Movie {
                  Set<String> writers,
                  Set<String> cinematographers,
                  Set<String> composers) {
+        this(title, releaseDate, genres, new PersonDictionary(),
+                directors, actors, writers, cinematographers, composers);
+    }
+
+    /**
+     * Constructs a new Movie object whose people are interned in the given dictionary.
+     *
+     * @param dictionary the dictionary to intern the people in
+     * @see #Movie(String, int, Set, Set, Set, Set, Set, Set)
+     */
+    Movie(String title, int releaseDate, Set<String> genres, PersonDictionary dictionary,
+          Set<String> directors,
+          Set<String> actors,
+          Set<String> writers,
+          Set<String> cinematographers,
+          Set<String> composers) {
+        this(title, releaseDate, genres, new int[][] {
+                dictionary.internAll(directors),
+                dictionary.internAll(actors),
+                dictionary.internAll(writers),
+                dictionary.internAll(cinematographers),
+                dictionary.internAll(composers)
+        }, dictionary);
+    }
+
+    /**
+     * Constructs a new Movie object from person ids that are already interned.
+     *
+     * @param title       the title of the movie
+     * @param releaseDate the release year of the movie
+     * @param genres      the genres the movie belongs to
+     * @param people      sorted, distinct ids from the dictionary, one array per role
+     * @param dictionary  the dictionary the ids come from
+     */
+    Movie(String title, int releaseDate, Set<String> genres, int[][] people, PersonDictionary dictionary) {
         this.title = title;
         this.releaseDate = releaseDate;
         this.genres = genres;
-        this.directors = directors;
-        this.actors = actors;
-        this.writers = writers;
-        this.cinematographers = cinematographers;
-        this.composers = composers;
+        this.people = people;
+
+        int total = 0;
+        for (int[] ids : people) {
+            total += ids.length;
+        }
+        int[] merged = new int[total];
+        int count = 0;
+        for (int[] ids : people) {
+            System.arraycopy(ids, 0, merged, count, ids.length);
+            count += ids.length;
+        }
+        this.allPeople = PersonDictionary.sortedDistinct(merged, count);
+        this.roleMasks = new byte[allPeople.length];
+        for (int role = 0; role < people.length; role++) {
+            for (int id : people[role]) {
+                roleMasks[Arrays.binarySearch(allPeople, id)] |= (byte) (1 << role);
+            }
+        }
+        this.dictionary = dictionary;
+        this.allPeopleView = new PersonIdSet(allPeople, dictionary);
     }
 
     /**
@@ -68,50 +132,123 @@ public class Movie {
      * @return the directors of the movie
      */
     public Set<String> getDirectors() {
-        return directors;
+        return getPeopleInRole(DIRECTOR);
     }
 
     /**
      * @return the actors of the movie
      */
     public Set<String> getActors() {
-        return actors;
+        return getPeopleInRole(ACTOR);
     }
 
     /**
      * @return the writers of the movie
      */
     public Set<String> getWriters() {
-        return writers;
+        return getPeopleInRole(WRITER);
     }
 
     /**
      * @return the cinematographers of the movie
      */
     public Set<String> getCinematographers() {
-        return cinematographers;
+        return getPeopleInRole(CINEMATOGRAPHER);
     }
 
     /**
      * @return the composers of the movie
      */
     public Set<String> getComposers() {
-        return composers;
+        return getPeopleInRole(COMPOSER);
     }
 
     /**
-     * Returns a set containing all people of the movie.
+     * @param role one of the role indices defined on this class
+     * @return the people credited in that role, as a read-only view
+     */
+    public Set<String> getPeopleInRole(int role) {
+        return new PersonIdSet(people[role], dictionary);
+    }
+
+    /**
+     * @param role one of the role indices defined on this class
+     * @return the sorted ids of the people credited in that role; callers must not modify it
+     */
+    public int[] getPersonIds(int role) {
+        return people[role];
+    }
+
+    /**
+     * Returns a set containing all people of the movie. The set is built once
+     * with the movie and is read-only; copy it before modifying.
      *
      * @return a set of all contributor names
      */
     public Set<String> getAllPeople() {
-        Set<String> result = new HashSet<>();
-        result.addAll(directors);
-        result.addAll(actors);
-        result.addAll(writers);
-        result.addAll(cinematographers);
-        result.addAll(composers);
-        return result;
+        return allPeopleView;
+    }
+
+    /**
+     * @return the sorted ids of everyone credited in any role, each once; callers must not modify it
+     */
+    public int[] getAllPersonIds() {
+        return allPeople;
+    }
+
+    /**
+     * Returns the ids everyone credited in the movie has in another dictionary,
+     * leaving out people that dictionary has never seen. For the movie's own
+     * dictionary this is {@link #getAllPersonIds()} and allocates nothing.
+     *
+     * @param other the dictionary to look the people up in
+     * @return sorted, distinct ids from that dictionary; callers must not modify it
+     */
+    public int[] getAllPersonIds(PersonDictionary other) {
+        if (other == dictionary) {
+            return allPeople;
+        }
+        int[] ids = new int[allPeople.length];
+        int count = 0;
+        for (int person : allPeople) {
+            int id = other.idOf(dictionary.nameOf(person));
+            if (id >= 0) {
+                ids[count++] = id;
+            }
+        }
+        return PersonDictionary.sortedDistinct(ids, count);
+    }
+
+    /**
+     * @return the dictionary this movie's person ids come from
+     */
+    PersonDictionary getPersonDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param personId a person id
+     * @return a bit (1 &lt;&lt; role) for every role the person is credited in, or 0 if they are not in the movie
+     */
+    public int getRoleMask(int personId) {
+        int k = Arrays.binarySearch(allPeople, personId);
+        return k < 0 ? 0 : roleMasks[k];
+    }
+
+    /**
+     * @return the role mask of each person in {@link #getAllPersonIds()}, in the same order; callers must not modify it
+     */
+    byte[] roleMasks() {
+        return roleMasks;
+    }
+
+    /**
+     * @param name the person's name
+     * @param role one of the role indices defined on this class
+     * @return true if the person is credited in that role
+     */
+    public boolean hasRole(String name, int role) {
+        return (getRoleMask(dictionary.idOf(name)) & (1 << role)) != 0;
     }
 
     /**
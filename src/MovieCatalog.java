@@ -0,0 +1,128 @@
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the Database that new games should use, and swaps in a freshly loaded
+ * one when the CSV changes. A Database is never modified once it has finished
+ * loading, so a game keeps querying the Database it started with for as long
+ * as it runs, even after a newer one has been swapped in here.
+ *
+ * Readers never lock: {@link #current()} is a single volatile read. A reload
+ * parses and indexes the new catalog on a background thread and only then
+ * publishes it. {@link #watch} polls the CSV for edits on a daemon thread the
+ * catalog owns, so hot reload keeps working across games whatever happens to
+ * a game's own timers. Loads run on a small pool of low-priority daemon
+ * threads the catalog owns, so parsing and indexing a new catalog never
+ * competes with the computer player or anything else on the common pool.
+ */
+public class MovieCatalog {
+    private final AtomicReference<Database> current = new AtomicReference<>(new Database());
+    // the reload in progress, so a second request while one is running does not start another
+    private CompletableFuture<Database> pending;
+    private String filePath;
+    private volatile long loadedModified;
+    // checks the CSV for edits; created by the first call to watch and kept for the catalog's lifetime
+    private ScheduledExecutorService watcher;
+    private ScheduledFuture<?> watch;
+    // parses and indexes every load; created by the first reload and kept for the catalog's lifetime
+    private ForkJoinPool loader;
+
+    /**
+     * @return the most recently loaded database; empty until the first load completes
+     */
+    public Database current() {
+        return current.get();
+    }
+
+    /**
+     * Load a CSV in the background and make it current once it is ready.
+     * If a reload is already running its future is returned instead. A CSV
+     * that yields no movies, such as one caught half-written, leaves the
+     * current database in place.
+     *
+     * @param filePath The location of the CSV file.
+     * @return a future that completes with the new database after it has been swapped in
+     */
+    public synchronized CompletableFuture<Database> reload(String filePath) {
+        if (pending != null && !pending.isDone()) {
+            return pending;
+        }
+        this.filePath = filePath;
+        long modified = new File(filePath).lastModified();
+        if (loader == null) {
+            loader = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("catalog-loader");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        Database database = new Database(loader);
+        CompletableFuture<Database> next = CompletableFuture.supplyAsync(() -> {
+            database.load(filePath);
+            return database;
+        }, loader).thenApply(loaded -> {
+            loadedModified = modified;
+            if (loaded.getMovieCount() > 0) {
+                current.set(loaded);
+            }
+            return current.get();
+        });
+        pending = next;
+        return next;
+    }
+
+    /**
+     * Start a reload if the CSV last loaded has been modified since. Cheap enough
+     * to call from a timer: it only looks at the file's modification time.
+     *
+     * @return true if a reload was started
+     */
+    public synchronized boolean reloadIfModified() {
+        if (filePath == null || pending == null || !pending.isDone()) {
+            return false;
+        }
+        if (new File(filePath).lastModified() == loadedModified) {
+            return false;
+        }
+        reload(filePath);
+        return true;
+    }
+
+    /**
+     * Call {@link #reloadIfModified()} at a fixed delay from now on, replacing
+     * any earlier schedule. The checks run on a daemon thread of the catalog's
+     * own, so they never keep the program alive and do not stop when a game ends.
+     *
+     * @param delay how long to wait between checks
+     * @param unit  the unit of delay
+     */
+    public synchronized void watch(long delay, TimeUnit unit) {
+        if (watcher == null) {
+            watcher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "catalog-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (watch != null) {
+            watch.cancel(false);
+        }
+        watch = watcher.scheduleWithFixedDelay(this::reloadIfModified, delay, delay, unit);
+    }
+
+    /**
+     * @return true if the CSV is being checked for edits
+     */
+    public synchronized boolean isWatching() {
+        return watch != null && !watch.isDone();
+    }
+}
@@ -1,11 +1,19 @@
 import java.io.IOException;
 /**
- * Main loop for running the Movie Game.
+ * Main loop for running the Movie Game. Pass --cpu to play against the computer,
+ * or --cpu=<millis> to also set how long it thinks per turn.
  */
 public class MovieGame {
     public static void main(String[] args) {
         try {
             MovieGameController game = new MovieGameController();
+            for (String arg : args) {
+                if (arg.equals("--cpu")) {
+                    game.setComputerPlayer(new ComputerPlayer(2000));
+                } else if (arg.startsWith("--cpu=")) {
+                    game.setComputerPlayer(new ComputerPlayer(Long.parseLong(arg.substring("--cpu=".length()))));
+                }
+            }
             game.run();
         } catch (IOException e) {
             e.printStackTrace();
@@ -1,6 +1,9 @@
 import com.googlecode.lanterna.input.KeyStroke;
 import com.googlecode.lanterna.input.KeyType;
 import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -13,7 +16,16 @@ import java.util.concurrent.TimeUnit;
 public class MovieGameController implements IObserver{
     protected MovieGameModel model;
     protected MovieGameView view;
+    // the database the current game was started with; it stays the same until the next game
     protected Database database = new Database();
+    // completes once the first database can be queried
+    protected CompletableFuture<Database> databaseReady;
+    // the latest loaded database, swapped when the CSV changes on disk
+    protected MovieCatalog catalog = new MovieCatalog();
+    // plays player 2 when set; null for a two-player game
+    protected ComputerPlayer computerPlayer;
+    // moves the computer has chosen, handed from its search thread to the input loop, which plays them
+    protected final Queue<ComputerMove> computerMoves = new ConcurrentLinkedQueue<>();
 
     protected StringBuilder currentInput = new StringBuilder();
     protected boolean timerRunning = true;
@@ -22,15 +34,29 @@ public class MovieGameController implements IObserver{
     protected boolean shouldExit = false;
 
     /**
-     * Constructs a new MovieGameController, initializes the database, model, and view,
-     * sets up the game timer, and registers the view as an observer.
+     * A move the computer chose, and the round it was chosen for.
+     */
+    protected static class ComputerMove {
+        final int round;
+        final Movie movie;
+
+        ComputerMove(int round, Movie movie) {
+            this.round = round;
+            this.movie = movie;
+        }
+    }
+
+    /**
+     * Constructs a new MovieGameController, starts loading the database in the background,
+     * initializes the model and view, sets up the game timer, and registers the view as an observer.
+     * The landing screen is usable while the database is still loading.
      *
      * @throws IOException If there is an error loading the movie database or updating the view.
      */
     public MovieGameController() throws IOException {
         // initialize database, model, and view
-        this.database.loadFromCSV("cleaned_imdb_final.csv");
-        this.model = new MovieGameModel(database.getRandomMovie(), database.getMovieNameSet());
+        this.databaseReady = this.catalog.reload("cleaned_imdb_final.csv");
+        this.model = new MovieGameModel();
         this.view = new MovieGameView(this.model);
         this.model.addObserver(this);
 
@@ -51,6 +77,18 @@ public class MovieGameController implements IObserver{
                 }
             }
         }, 1, 1, TimeUnit.SECONDS);
+
+        // pick up catalog edits; the catalog polls on a thread of its own, which outlives the game timer
+        catalog.watch(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Makes the computer play as player 2. Call before {@link #run()}.
+     *
+     * @param computerPlayer the computer opponent, or null for a two-player game
+     */
+    public void setComputerPlayer(ComputerPlayer computerPlayer) {
+        this.computerPlayer = computerPlayer;
     }
 
     /**
@@ -91,6 +129,9 @@ public class MovieGameController implements IObserver{
                         model.moveSuggestionRight();
                         model.notifyObservers("REFRESH");
                         break;
+                    case Tab:
+                        model.toggleHints();
+                        break;
                     case Character:
                         handleCharacter(Character.toLowerCase(keyStroke.getCharacter()));
                         break;
@@ -109,6 +150,7 @@ public class MovieGameController implements IObserver{
                 }
                 view.updateScreen(currentInput);
             }
+            playComputerMoves();
 
             try {
                 Thread.sleep(10);
@@ -147,6 +189,10 @@ public class MovieGameController implements IObserver{
             } else if (keyStroke.getKeyType() == KeyType.Enter) {
                 if (model.getEnteringPlayer1() && !model.getPlayer1Name().isEmpty()) {
                     model.setEnteringPlayer1(false);
+                    if (computerPlayer != null) {
+                        model.setPlayer2Name(computerPlayer.getName());
+                        model.setSelectingGenre(true);
+                    }
                 } else if (!model.getEnteringPlayer1() && !model.getPlayer2Name().isEmpty()) {
                     model.setSelectingGenre(true);
                 }
@@ -160,6 +206,7 @@ public class MovieGameController implements IObserver{
                 case ArrowDown -> model.selectNextGenre(4, model.getGenreList().length);
                 case Enter -> {
                     // start game
+                    awaitDatabase();
                     model.startNewGame();
                     view.setCursorPosition(0);
                     currentInput = new StringBuilder();
@@ -171,6 +218,37 @@ public class MovieGameController implements IObserver{
         view.showLandingScreen();
     }
 
+    /**
+     * Waits for the background database load if it has not finished yet, then switches
+     * the new game to the latest database, giving the model a starting movie from it
+     * whenever it differs from the last game's.
+     */
+    protected void awaitDatabase() {
+        if (databaseReady != null) {
+            databaseReady.join();
+        }
+        if (useLatestDatabase() || !model.hasStartingMovie()) {
+            model.setStartingMovie(database.getRandomMovie());
+        }
+    }
+
+    /**
+     * Switches to the catalog's latest database if it is newer than the one the
+     * last game used, giving the model its hint engine and suggestion dictionary.
+     *
+     * @return true if the database changed
+     */
+    protected boolean useLatestDatabase() {
+        Database latest = catalog.current();
+        if (latest == database) {
+            return false;
+        }
+        database = latest;
+        model.setHintEngine(database.getHintEngine());
+        model.setTitleIndex(database.getTitleIndex());
+        return true;
+    }
+
     /**
      * Processes a character input during gameplay and updates the current input and suggestions.
      *
@@ -178,6 +256,10 @@ public class MovieGameController implements IObserver{
      * @throws IOException If there is an error updating the screen.
      */
     protected void handleCharacter(char c) throws IOException {
+        if ((c == '[' || c == ']') && isComputerTurn()) {
+            // the computer's power-ups are not the person's to spend
+            return;
+        }
         if (c == '[') {
             activateTimeBoost();
         } else if (c == ']') {
@@ -207,8 +289,8 @@ public class MovieGameController implements IObserver{
      * @throws IOException If there is an error updating the view.
      */
     protected void handleEnter() throws IOException {
-        // if no suggestions, do nothing
-        if (model.getSuggestions().isEmpty()) {
+        // if no suggestions, or the computer is thinking, do nothing
+        if (model.getSuggestions().isEmpty() || isComputerTurn()) {
             return;
         }
         Movie guess;
@@ -221,6 +303,74 @@ public class MovieGameController implements IObserver{
             model.updateToNextRound();
             currentInput = new StringBuilder();
             view.setCursorPosition(0);
+            if (endGameIfStalemate()) {
+                return;
+            }
+            if (isComputerTurn()) {
+                playComputerTurn();
+            }
+        }
+    }
+
+    /**
+     * Ends the game if the player whose turn has just begun has no legal move,
+     * with the same event the timer sends when that player runs out of time.
+     * Call only once the round has moved on, so the game over screen does not
+     * block halfway through a guess.
+     *
+     * @return true if the game was ended
+     */
+    protected boolean endGameIfStalemate() {
+        if (!model.isStalemate()) {
+            return false;
+        }
+        model.setChanged();
+        model.notifyObservers("GAME_OVER_" + (model.isPlayer1Turn() ? "2" : "1"));
+        return true;
+    }
+
+    /**
+     * @return true if the computer plays this game and it is its turn
+     */
+    protected boolean isComputerTurn() {
+        return computerPlayer != null && !model.isPlayer1Turn();
+    }
+
+    /**
+     * Lets the computer search for its move in the background. The search works
+     * on a copy of the game, and the move it finds is only queued; the input
+     * loop plays it, so the model is only ever changed from that one thread. If
+     * it finds no legal move it plays nothing and the timer runs out as it would
+     * for a person.
+     */
+    protected void playComputerTurn() {
+        int round = model.getRoundNumber();
+        computerPlayer.chooseMoveAsync(database, model).thenAccept(move -> {
+            if (move != null) {
+                computerMoves.add(new ComputerMove(round, move));
+            }
+        });
+    }
+
+    /**
+     * Plays the moves the computer has chosen since the last call, skipping any
+     * whose round has already moved on. Called from the input loop.
+     *
+     * @throws IOException if the view fails to update.
+     */
+    protected void playComputerMoves() throws IOException {
+        ComputerMove move;
+        while ((move = computerMoves.poll()) != null) {
+            if (move.round != model.getRoundNumber() || !model.isGameStarted()) {
+                continue;
+            }
+            if (model.validateGuess(move.movie)) {
+                model.updateToNextRound();
+                if (endGameIfStalemate()) {
+                    return;
+                }
+            }
+            view.updateScreen(currentInput);
         }
     }
 
@@ -259,11 +409,13 @@ public class MovieGameController implements IObserver{
     }
 
     /**
-     * Resets the game state and restarts the view and model for a new session.
+     * Resets the game state and restarts the view and model for a new session, on
+     * the latest database if the catalog has been reloaded since the last game.
      *
      * @throws IOException if resetting view fails.
      */
     protected void restartGame() throws IOException {
+        useLatestDatabase();
         model.resetModel(database.getRandomMovie());
         view.resetView();
         currentInput = new StringBuilder();
@@ -6,6 +6,15 @@ import java.util.*;
  * This model follows the Observer pattern and interacts with Movie and Player objects.
  */
 public class MovieGameModel implements IObservable {
+    // how many times a player may connect through the same person
+    public static final int PERSON_LIMIT = 3;
+    // genre points needed to win
+    public static final int WINNING_SCORE = 5;
+    // how many suggestions the view has room for
+    private static final int SUGGESTION_LIMIT = 5;
+    // how long a keystroke may spend looking for mistyped titles
+    private static final long FUZZY_BUDGET_NANOS = 2_000_000;
+
     // player fields
     private String player1Name = "";
     private String player2Name = "";
@@ -19,6 +28,9 @@ public class MovieGameModel implements IObservable {
     private Map<String, Set<String>> lastFiveConnections = new HashMap<>(5);
     private Map<String, Player> lastFivePlayers = new HashMap<>(5);
     private Set<Movie> allMovies = new HashSet<>();
+    // reused by every guess so checking a connection allocates nothing; set up with the
+    // starting movie, since its dictionary is the one the rest of the game's movies share
+    private SharedPeople sharedPeople;
 
     // observer fields
     private List<IObserver> observers = new ArrayList<>();
@@ -28,7 +40,17 @@ public class MovieGameModel implements IObservable {
     private List<String> suggestions = new ArrayList<>();
     private int suggestionIndex = 0;
     private List<String> suggestionGenres = new ArrayList<>();
-    ArrayList<String> dictionary;
+    // shared with every other game on the same Database, never copied
+    TitleIndex dictionary;
+    // the titles matching the input, narrowed or widened one keystroke at a time
+    private PrefixCursor suggestionCursor;
+    // off unless a player asks for it, since ranking gives away the legal moves Tab is for
+    private boolean rankingSuggestions = false;
+    // the legal next moves, worked out again whenever the round or the head changes
+    private ConnectableTitles connectable = ConnectableTitles.NONE;
+    private Movie connectableHead;
+    private int connectableRound = -1;
+    private String connectableGenre;
 
     // gameplay fields
     private int secondsRemaining = 30;
@@ -50,28 +72,90 @@ public class MovieGameModel implements IObservable {
     private int player2TimeSabotages = 1;
     private boolean nextPlayerSabotaged = false;
 
+    // hint fields
+    private HintEngine hintEngine;
+    // set when the last guess left the next player with no legal move
+    private boolean stalemate = false;
+    private boolean showingHints = false;
+
     /**
      * Constructs a MovieGameModel with an initial movie and a set of all possible movie names.
-     * Initializes player state and the internal dictionary for autocomplete suggestions.
+     * Initializes player state and builds a dictionary for autocomplete suggestions; games on
+     * a Database should share its {@link Database#getTitleIndex()} instead.
      *
      * @param startingMovie The first movie to be added to the game.
      * @param movieNames A set of all movie titles to be used for suggestions.
      */
     public MovieGameModel(Movie startingMovie, Set<String> movieNames) {
-        // initialize state with starting movie
+        this(startingMovie, new TitleIndex(movieNames));
+    }
+
+    /**
+     * Constructs a MovieGameModel with an initial movie and a shared title index. The index
+     * is kept by reference, so this takes the same time and memory whatever the catalog size.
+     *
+     * @param startingMovie The first movie to be added to the game.
+     * @param titleIndex The titles to be used for suggestions.
+     */
+    public MovieGameModel(Movie startingMovie, TitleIndex titleIndex) {
+        this();
+        setStartingMovie(startingMovie);
+        setTitleIndex(titleIndex);
+    }
+
+    /**
+     * Constructs a MovieGameModel before the movie database has loaded. Players can
+     * enter their names and pick a genre, but {@link #setStartingMovie(Movie)} and
+     * {@link #setTitleIndex(TitleIndex)} must be called before the game starts.
+     */
+    public MovieGameModel() {
+        this.currentPlayer = player1;
+        setTitleIndex(TitleIndex.EMPTY);
+    }
+
+    /**
+     * Sets the movie the game opens with, replacing any movie played so far.
+     *
+     * @param startingMovie The first movie to be added to the game.
+     */
+    public void setStartingMovie(Movie startingMovie) {
+        this.lastFiveMovies.clear();
+        this.lastFiveConnections.clear();
+        this.lastFivePlayers.clear();
+        this.allMovies.clear();
         this.lastFiveMovies.add(startingMovie);
         this.lastFiveConnections.put(startingMovie.getTitle(), null);
+        this.sharedPeople = new SharedPeople(startingMovie.getPersonDictionary());
         this.lastFivePlayers.put(startingMovie.getTitle(), null);
         this.allMovies.add(startingMovie);
-        this.currentPlayer = player1;
+    }
 
-        // create dictionary of movie titles
-        List<String> titles = new ArrayList<>(movieNames);
-        this.dictionary = new ArrayList<>();
-        for (String movieName : titles) {
-            movieName = movieName.toLowerCase();
-            this.dictionary.add(movieName);
-        }
+    /**
+     * Replaces the dictionary of movie titles used for suggestions with one built from
+     * a set of names.
+     *
+     * @param movieNames A set of all movie titles to be used for suggestions.
+     */
+    public void setMovieNames(Set<String> movieNames) {
+        setTitleIndex(new TitleIndex(movieNames));
+    }
+
+    /**
+     * Replaces the dictionary of movie titles used for suggestions with a shared index.
+     *
+     * @param titleIndex The titles to be used for suggestions.
+     */
+    public void setTitleIndex(TitleIndex titleIndex) {
+        this.dictionary = titleIndex;
+        this.suggestionCursor = new PrefixCursor(titleIndex.getTitles());
+        this.connectableHead = null;
+    }
+
+    /**
+     * @return true once a starting movie has been set.
+     */
+    public boolean hasStartingMovie() {
+        return !lastFiveMovies.isEmpty();
     }
 
     // Getters and setters
@@ -79,6 +163,20 @@ public class MovieGameModel implements IObservable {
         return currentPlayer;
     }
 
+    /**
+     * @return the player waiting for their turn.
+     */
+    public Player getOpponentPlayer() {
+        return currentPlayer == player1 ? player2 : player1;
+    }
+
+    /**
+     * @return every movie guessed so far, right or wrong, including the starting movie.
+     */
+    public Set<Movie> getPlayedMovies() {
+        return Collections.unmodifiableSet(allMovies);
+    }
+
     /**
      * @return the name entered for Player 1.
      */
@@ -288,6 +386,64 @@ public class MovieGameModel implements IObservable {
     }
 
 
+    /**
+     * Sets the engine used to answer {@link #getHints(int)}. With an engine set, a
+     * guess that leaves the next player without a legal move ends the game at once.
+     *
+     * @param hintEngine the hint engine for the database the game is played on.
+     */
+    public void setHintEngine(HintEngine hintEngine) {
+        this.hintEngine = hintEngine;
+        this.connectableHead = null;
+    }
+
+    /**
+     * @return true if suggestions that could legally be played next are listed first.
+     */
+    public boolean isRankingSuggestions() {
+        return rankingSuggestions;
+    }
+
+    /**
+     * Switches ranked suggestions on or off. When on, and there is a hint engine,
+     * the titles matching the input that could legally be played next come first:
+     * those scoring for the selected genre first, then the better connected ones.
+     * When off, which is the default, suggestions are purely alphabetical.
+     *
+     * @param rankingSuggestions true to rank suggestions.
+     */
+    public void setRankingSuggestions(boolean rankingSuggestions) {
+        this.rankingSuggestions = rankingSuggestions;
+    }
+
+    /**
+     * @return true if hints are shown during play.
+     */
+    public boolean isShowingHints() {
+        return showingHints;
+    }
+
+    /**
+     * Switches the hint display on or off.
+     */
+    public void toggleHints() {
+        showingHints = !showingHints;
+    }
+
+    /**
+     * Lists the legal next moves for the current player, best first.
+     *
+     * @param limit the most hints to return.
+     * @return the hints, or an empty list if there is no hint engine or no movie to connect from.
+     */
+    public List<HintEngine.Hint> getHints(int limit) {
+        Movie head = getMostRecentMovie();
+        if (hintEngine == null || head == null) {
+            return Collections.emptyList();
+        }
+        return hintEngine.hints(head, allMovies, currentPlayer, selectedGenre, limit);
+    }
+
     // other methods
 
     /**
@@ -327,6 +483,14 @@ public class MovieGameModel implements IObservable {
         }
     }
 
+    /**
+     * Sets Player 2's name outright, for a computer opponent.
+     * @param name the name to show for Player 2.
+     */
+    public void setPlayer2Name(String name) {
+        player2Name = name;
+    }
+
     /**
      * Removes the last character from the current player name being entered.
      */
@@ -386,27 +550,70 @@ public class MovieGameModel implements IObservable {
     }
 
     /**
-     * Updates the list of autocomplete suggestions based on the current input prefix.
+     * Updates the list of autocomplete suggestions based on the current input prefix:
+     * the first five titles, in alphabetical order, that start with it. Only the
+     * characters that changed since the last call are matched again. When ranking,
+     * the best matching titles that could legally be played next come before the
+     * rest; they are worked out once per round, so ranking a keystroke only looks
+     * at the legal moves that match. If fewer than
+     * five titles match, titles containing the typed words anywhere come next, so
+     * "knight ris" finds "the dark knight rises", and then titles within one
+     * mistyped character of the input (two once it is six characters long).
      * @param currentInput a StringBuilder representing the user's current input.
      */
     public void updateSuggestions(StringBuilder currentInput) {
         suggestions.clear();
         suggestionGenres.clear();
-        String prefix = currentInput.toString();
-        if (!prefix.isEmpty()) {
-            int count = 0;
-            for (String word : dictionary) {
-                if (word.startsWith(prefix.toLowerCase()) && count < 5) {
-                    suggestions.add(word);
-                    String genre = "genre";
-                    suggestionGenres.add(genre);
-                    count++;
-                }
-            }
+        suggestionCursor.update(currentInput);
+        if (currentInput.length() > 0 && rankingSuggestions && hintEngine != null) {
+            updateConnectable();
+            connectable.best(suggestionCursor.start(), suggestionCursor.end(), SUGGESTION_LIMIT)
+                    .forEach(this::addSuggestion);
+        }
+        if (currentInput.length() > 0) {
+            suggestionCursor.first(SUGGESTION_LIMIT).forEach(this::addSuggestion);
+        }
+        if (suggestions.size() < SUGGESTION_LIMIT) {
+            dictionary.getWords().complete(currentInput, SUGGESTION_LIMIT).forEach(this::addSuggestion);
+        }
+        // still too few: the player may have mistyped, so fill up with near misses
+        int edits = currentInput.length() >= 6 ? 2 : currentInput.length() >= 3 ? 1 : 0;
+        if (suggestions.size() < SUGGESTION_LIMIT && edits > 0) {
+            dictionary.getTitles().completeFuzzy(currentInput, edits, SUGGESTION_LIMIT, FUZZY_BUDGET_NANOS)
+                    .forEach(this::addSuggestion);
         }
         suggestionIndex = 0;
     }
 
+    /**
+     * Adds a title to the suggestions unless it is already listed or the list is full.
+     *
+     * @param title the lower-cased title to suggest.
+     */
+    private void addSuggestion(String title) {
+        if (suggestions.size() < SUGGESTION_LIMIT && !suggestions.contains(title)) {
+            suggestions.add(title);
+            String genre = "genre";
+            suggestionGenres.add(genre);
+        }
+    }
+
+    /**
+     * Works out the legal next moves again if the round, head or genre has changed
+     * since they were last worked out.
+     */
+    private void updateConnectable() {
+        Movie head = getMostRecentMovie();
+        if (head == connectableHead && roundNumber == connectableRound && selectedGenre.equals(connectableGenre)) {
+            return;
+        }
+        connectableHead = head;
+        connectableRound = roundNumber;
+        connectableGenre = selectedGenre;
+        connectable = head == null ? ConnectableTitles.NONE : ConnectableTitles.of(dictionary.getTitles(),
+                hintEngine.hints(head, allMovies, currentPlayer, selectedGenre, Integer.MAX_VALUE), hintEngine);
+    }
+
     /**
      * Validates a guessed movie based on connection rules and updates state if valid.
      * @param guess The Movie being guessed.
@@ -422,41 +629,38 @@ public class MovieGameModel implements IObservable {
         allMovies.add(guess);
         // check the movie against the most recent movie in Queue
         Movie previousMovie = getMostRecentMovie();
-        System.out.println("Comparing " + guess.getTitle() + " to " + previousMovie.getTitle());
-        Set<String> connections = getConnections(guess, previousMovie);
         // if there are no connections then return false
-        if (connections.isEmpty()) {
+        if (sharedPeople.compute(guess, previousMovie) == 0) {
             currentPlayer.updateIncorrectGuesses(guess);
             System.out.println("No connections found.");
             return false;
         }
         // if there are connections but the currentPlayer has hit their limit
-        Set<String> toUpdate = new HashSet<>();
-        for (String person : connections) {
-            if (currentPlayer.getConnectionOfPerson(person) >= 3) {
+        for (int i = sharedPeople.size() - 1; i >= 0; i--) {
+            String person = sharedPeople.nameAt(i);
+            if (currentPlayer.getConnectionOfPerson(person) >= PERSON_LIMIT) {
                 System.out.println("Hit person limit for: " + person);
-                continue;
+                sharedPeople.remove(i);
             }
-            toUpdate.add(person);
         }
         // if all connections are at their limit, return false
-        if (toUpdate.isEmpty()) {
+        if (sharedPeople.size() == 0) {
             currentPlayer.updateIncorrectGuesses(guess);
             System.out.println("No connections to update.");
             return false;
         }
         // valid guess
-        updateGuess(guess, toUpdate);
+        updateGuess(guess);
         return true;
     }
 
     /**
-     * Updates the game state based on the player's guess.
+     * Updates the game state based on the player's guess. The people it connects
+     * through are those left in the shared-people buffer by {@link #validateGuess(Movie)}.
      *
-     * @param guess       the {@link Movie} object representing the player's guess
-     * @param connections a set of shared people (actors, directors, etc.) between the guessed movie and the previous movie
+     * @param guess the {@link Movie} object representing the player's guess
      */
-    private void updateGuess(Movie guess, Set<String> connections) {
+    private void updateGuess(Movie guess) {
         // ensure lastFiveMovies and lastFiveConnections doesn't exceed 5
         if (lastFiveMovies.size() == 5) {
             lastFiveMovies.pollFirst();
@@ -464,17 +668,19 @@ public class MovieGameModel implements IObservable {
         }
         // add to lastFive
         System.out.println("Added: " + guess.getTitle());
-        for (String con : connections) {
-            System.out.println(con);
+        for (int i = 0; i < sharedPeople.size(); i++) {
+            System.out.println(sharedPeople.nameAt(i));
         }
         System.out.println();
+        // kept for the view, so copied out of the buffer the next guess reuses
+        Set<String> connections = sharedPeople.snapshot();
         lastFiveMovies.add(guess);
         lastFiveConnections.put(guess.getTitle(), connections);
         lastFivePlayers.put(guess.getTitle(), currentPlayer);
         // update currentPlayer info
         if (guess.getGenres().contains(selectedGenre)) {
             currentPlayer.incrementScore();
-            if (currentPlayer.getScore() >= 5) {
+            if (currentPlayer.getScore() >= WINNING_SCORE) {
                 setChanged();
                 notifyObservers("GAME_OVER_" + (isPlayer1Turn()? "2" : "1"));
                 return;
@@ -485,19 +691,15 @@ public class MovieGameModel implements IObservable {
         currentPlayer.updateCorrectGuesses(guess); // correct guesses set
         // update currentPlayer to next player
         currentPlayer = (currentPlayer == player1) ? player2 : player1;
+        // a player with no legal move would only run out the clock; the controller ends the game instead
+        stalemate = hintEngine != null && !hintEngine.hasLegalMove(guess, allMovies, currentPlayer);
     }
 
     /**
-     * Retrieves the set of people common to both movies.
-     *
-     * @param movie1 the first {@link Movie} object
-     * @param movie2 the second {@link Movie} object
-     * @return a set of names that appear in both movies' contributor lists
+     * @return true if the last valid guess left the next player without a legal move.
      */
-    private Set<String> getConnections(Movie movie1, Movie movie2) {
-        Set<String> intersectionSet = movie1.getAllPeople();
-        intersectionSet.retainAll(movie2.getAllPeople());
-        return intersectionSet;
+    public boolean isStalemate() {
+        return stalemate;
     }
 
     /**
@@ -560,6 +762,8 @@ public class MovieGameModel implements IObservable {
         suggestionGenres.clear();
         selectedGenre = "";
         allMovies.clear();
+        connectableHead = null;
+        stalemate = false;
 
 
         roundNumber = 0;
@@ -579,10 +783,7 @@ public class MovieGameModel implements IObservable {
         player2.reset();
         currentPlayer = player1;
 
-        lastFiveMovies.add(startingMovie);
-        lastFiveConnections.put(startingMovie.getTitle(), null);
-        lastFivePlayers.put(startingMovie.getTitle(), null);
-        allMovies.add(startingMovie);
+        setStartingMovie(startingMovie);
     }
 
     // Observer methods
@@ -174,7 +174,8 @@ import java.util.*;
                 "4. If time runs out, the other player wins",
                 "5. Use arrow keys to navigate suggestions and Enter to select",
                 "6. Power-ups: Press '[' to add 15 seconds to your time",
-                "7. Power-ups: Press ']' to reduce opponent's time next turn"
+                "7. Power-ups: Press ']' to reduce opponent's time next turn",
+                "8. Press Tab to show or hide hints (* scores for your genre)"
         };
 
         int instructionStartRow = 25;
@@ -393,6 +394,16 @@ import java.util.*;
             }
         }
 
+        // Hints for the current player, toggled with Tab
+        if (model.isShowingHints()) {
+            StringBuilder hintText = new StringBuilder("Hints: ");
+            for (HintEngine.Hint hint : model.getHints(3)) {
+                hintText.append(capitalizeTitle(hint.getMovie().getTitle()))
+                        .append(hint.scoresGenre() ? " * " : "   ");
+            }
+            printColoredString(4, size.getRows() - 7, hintText.toString().trim(), TextColor.ANSI.CYAN);
+        }
+
         // Input field
         printString(4, size.getRows() - 6, "Select a Movie: ");
         String promptText = "> ";
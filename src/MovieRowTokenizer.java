@@ -0,0 +1,411 @@
+/**
+ * Single-pass tokenizer for rows of the movie CSV. It walks a character buffer
+ * once and hands the title, every (role, name) credit, every genre and the
+ * release year straight to a {@link Sink}. No regular expressions are run and
+ * no intermediate strings are built for whole fields; characters are gathered
+ * in one reusable scratch buffer and only the final tokens become strings.
+ *
+ * The rules are the ones the loader has always used: a double quote toggles
+ * quoting and is dropped, a comma outside quotes ends a field, credits are
+ * separated by ", " followed by a role name and a colon, and genres are the
+ * "genres: X" items of a set literal such as {'genres: Drama', 'genres: Crime'}.
+ * A tokenizer is not thread-safe; give each thread its own.
+ */
+public class MovieRowTokenizer {
+
+    /**
+     * Receives the tokens of each row, in the order they appear in the line.
+     */
+    public interface Sink {
+
+        /**
+         * @param title the trimmed title column
+         */
+        void title(String title);
+
+        /**
+         * @param role one of the role indices defined on {@link Movie}
+         * @param name the trimmed name of the person credited in that role
+         */
+        void person(int role, String name);
+
+        /**
+         * @param genre the name of one genre of the movie
+         */
+        void genre(String genre);
+
+        /**
+         * Called once a row with all four columns has been read.
+         *
+         * @param releaseYear the year from the release date column, or 0 if there is none
+         */
+        void endRow(int releaseYear);
+
+        /**
+         * Called instead of {@link #endRow(int)} when a row has fewer than four columns.
+         */
+        void discardRow();
+    }
+
+    private static final char[][] ROLE_KEYS = new char[Movie.ROLE_NAMES.length][];
+    private static final char[] GENRE_KEY = "genres:".toCharArray();
+
+    static {
+        for (int role = 0; role < ROLE_KEYS.length; role++) {
+            ROLE_KEYS[role] = Movie.ROLE_NAMES[role].toCharArray();
+        }
+    }
+
+    private char[] scratch = new char[128];
+    private int length;
+    private boolean inQuotes;
+
+    /**
+     * Tokenizes every line in buf[from, to). Empty lines are skipped and a
+     * carriage return before a newline is treated as whitespace.
+     *
+     * @param buf  the characters to read
+     * @param from index of the first character of the first line
+     * @param to   index one past the last character to read
+     * @param sink receiver of the tokens
+     * @return the number of complete rows passed to the sink
+     */
+    public int tokenize(char[] buf, int from, int to, Sink sink) {
+        int rows = 0;
+        int i = from;
+        while (i < to) {
+            if (buf[i] == '\n') {
+                i++;
+                continue;
+            }
+            inQuotes = false;
+            int fields = 0;
+            int releaseYear = 0;
+            while (true) {
+                switch (fields) {
+                    case 0: i = readTitle(buf, i, to, sink); break;
+                    case 1: i = readPeople(buf, i, to, sink); break;
+                    case 2: i = readGenres(buf, i, to, sink); break;
+                    case 3:
+                        i = readDate(buf, i, to);
+                        releaseYear = parseYear();
+                        break;
+                    default: i = skipField(buf, i, to); break;
+                }
+                fields++;
+                if (i >= to || buf[i] == '\n') {
+                    break;
+                }
+                i++; // past the separating comma
+            }
+            if (fields >= 4) {
+                sink.endRow(releaseYear);
+                rows++;
+            } else {
+                sink.discardRow();
+            }
+            i++; // past the newline
+        }
+        return rows;
+    }
+
+    /**
+     * Reads the title column and emits it.
+     *
+     * @return index of the comma or newline that ended the field
+     */
+    private int readTitle(char[] buf, int i, int to, Sink sink) {
+        length = 0;
+        for (; i < to; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if ((c == ',' && !inQuotes) || c == '\n') {
+                break;
+            } else {
+                append(c);
+            }
+        }
+        sink.title(trimmed(0, length));
+        return i;
+    }
+
+    /**
+     * Reads the people column, emitting one credit per "role: name" entry.
+     *
+     * @return index of the comma or newline that ended the field
+     */
+    private int readPeople(char[] buf, int i, int to, Sink sink) {
+        length = 0;
+        int colon = -1;
+        for (; i < to; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if ((c == ',' && !inQuotes) || c == '\n') {
+                break;
+            } else if (c == ',' && i + 1 < to && buf[i + 1] == ' ' && startsWithRole(buf, i + 2, to)) {
+                emitPerson(colon, sink);
+                length = 0;
+                colon = -1;
+                i++; // the space after the comma
+            } else {
+                if (c == ':' && colon < 0) {
+                    colon = length;
+                }
+                append(c);
+            }
+        }
+        emitPerson(colon, sink);
+        return i;
+    }
+
+    /**
+     * Reads the genre column, emitting the name of every "genres:" item.
+     *
+     * @return index of the comma or newline that ended the field
+     */
+    private int readGenres(char[] buf, int i, int to, Sink sink) {
+        length = 0;
+        boolean braced = false;
+        for (; i < to; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if ((c == ',' && !inQuotes) || c == '\n') {
+                break;
+            } else if (c == '\'') {
+                // a quote, comma, optional whitespace and quote separate two items
+                int next = i + 1;
+                if (inQuotes && next < to && buf[next] == ',') {
+                    next++;
+                    while (next < to && isSeparatorSpace(buf[next])) {
+                        next++;
+                    }
+                    if (next < to && buf[next] == '\'') {
+                        emitGenre(sink);
+                        length = 0;
+                        i = next;
+                    }
+                }
+            } else if (c == '{' && !braced && firstContent() < 0) {
+                braced = true;
+            } else {
+                append(c);
+            }
+        }
+        if (braced) {
+            int last = lastContent();
+            if (last >= 0 && scratch[last] == '}') {
+                length = last;
+            }
+        }
+        emitGenre(sink);
+        return i;
+    }
+
+    /**
+     * Reads the release date column, keeping its first four non-blank characters in scratch.
+     *
+     * @return index of the comma or newline that ended the field
+     */
+    private int readDate(char[] buf, int i, int to) {
+        length = 0;
+        for (; i < to; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if ((c == ',' && !inQuotes) || c == '\n') {
+                break;
+            } else if (length < 4 && (length > 0 || !isSpace(c))) {
+                append(c);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Skips a column past the fourth.
+     *
+     * @return index of the comma or newline that ended the field
+     */
+    private int skipField(char[] buf, int i, int to) {
+        for (; i < to; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if ((c == ',' && !inQuotes) || c == '\n') {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Emits the credit held in scratch, if it has a colon and a known role.
+     *
+     * @param colon position of the first colon in scratch, or -1
+     */
+    private void emitPerson(int colon, Sink sink) {
+        if (colon < 0) {
+            return;
+        }
+        int role = roleOf(colon);
+        if (role >= 0) {
+            sink.person(role, trimmed(colon + 1, length));
+        }
+    }
+
+    /**
+     * Emits the genre held in scratch, if it is a "genres:" item.
+     */
+    private void emitGenre(Sink sink) {
+        int start = firstContent();
+        if (start < 0 || length - start < GENRE_KEY.length) {
+            return;
+        }
+        for (int k = 0; k < GENRE_KEY.length; k++) {
+            if (scratch[start + k] != GENRE_KEY[k]) {
+                return;
+            }
+        }
+        sink.genre(trimmed(start + GENRE_KEY.length, length));
+    }
+
+    /**
+     * Matches the trimmed text before the colon against the role names, ignoring case.
+     *
+     * @param colon position of the colon in scratch
+     * @return the role index, or -1 if the text is not a known role
+     */
+    private int roleOf(int colon) {
+        int start = 0;
+        int end = colon;
+        while (start < end && isSpace(scratch[start])) {
+            start++;
+        }
+        while (end > start && isSpace(scratch[end - 1])) {
+            end--;
+        }
+        for (int role = 0; role < ROLE_KEYS.length; role++) {
+            char[] key = ROLE_KEYS[role];
+            if (key.length != end - start) {
+                continue;
+            }
+            int k = 0;
+            while (k < key.length && Character.toLowerCase(scratch[start + k]) == key[k]) {
+                k++;
+            }
+            if (k == key.length) {
+                return role;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if buf[i, to) starts with a role name followed by a colon
+     */
+    private static boolean startsWithRole(char[] buf, int i, int to) {
+        for (char[] key : ROLE_KEYS) {
+            int end = i + key.length;
+            if (end >= to || buf[end] != ':') {
+                continue;
+            }
+            int k = 0;
+            while (k < key.length && buf[i + k] == key[k]) {
+                k++;
+            }
+            if (k == key.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the four characters of the release date held in scratch as a year.
+     *
+     * @return the year, or 0 if there are fewer than four characters or they are not a number
+     */
+    private int parseYear() {
+        if (length < 4) {
+            return 0;
+        }
+        int k = 0;
+        boolean negative = false;
+        if (scratch[0] == '-' || scratch[0] == '+') {
+            negative = scratch[0] == '-';
+            k = 1;
+        }
+        int year = 0;
+        for (; k < 4; k++) {
+            char c = scratch[k];
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            year = year * 10 + (c - '0');
+        }
+        return negative ? -year : year;
+    }
+
+    /**
+     * @return index of the first non-blank character in scratch, or -1 if there is none
+     */
+    private int firstContent() {
+        for (int k = 0; k < length; k++) {
+            if (!isSpace(scratch[k])) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the last non-blank character in scratch, or -1 if there is none
+     */
+    private int lastContent() {
+        for (int k = length - 1; k >= 0; k--) {
+            if (!isSpace(scratch[k])) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return scratch[start, end) with blanks removed from both ends, as a string
+     */
+    private String trimmed(int start, int end) {
+        while (start < end && isSpace(scratch[start])) {
+            start++;
+        }
+        while (end > start && isSpace(scratch[end - 1])) {
+            end--;
+        }
+        return new String(scratch, start, end - start);
+    }
+
+    private void append(char c) {
+        if (length == scratch.length) {
+            char[] grown = new char[scratch.length * 2];
+            System.arraycopy(scratch, 0, grown, 0, length);
+            scratch = grown;
+        }
+        scratch[length++] = c;
+    }
+
+    /**
+     * Whitespace allowed between the items of the genre set, excluding newlines.
+     */
+    private static boolean isSeparatorSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    /**
+     * Same notion of blank as {@link String#trim()}.
+     */
+    private static boolean isSpace(char c) {
+        return c <= ' ';
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Picks random movie ids, either uniformly from the whole catalog or from a
+ * constrained subset. Every constraint has a precomputed bucket, so a sample
+ * costs at most one hash lookup or binary search plus one random number, no
+ * matter how rare the constraint is.
+ *
+ * Samplers are immutable and safe to share between threads; pass each call
+ * the Random it should use.
+ */
+public class MovieSampler {
+    private final int movieCount;
+    // movie ids of each genre
+    private final Map<String, int[]> genreBuckets;
+    // movie ids ordered by release year, and the year of each entry
+    private final int[] idsByYear;
+    private final int[] sortedYears;
+    // movie ids ordered by neighbour count, most connected first, and the count of each entry
+    private final int[] idsByNeighbours;
+    private final int[] sortedNeighbours;
+
+    /**
+     * Builds the buckets for a catalog.
+     *
+     * @param movies     the movies, where a movie's id is its position in the array
+     * @param neighbours for each movie id, how many other movies it connects to
+     */
+    public MovieSampler(Movie[] movies, int[] neighbours) {
+        movieCount = movies.length;
+
+        Map<String, List<Integer>> genres = new HashMap<>();
+        for (int id = 0; id < movies.length; id++) {
+            for (String genre : movies[id].getGenres()) {
+                genres.computeIfAbsent(genre, g -> new ArrayList<>()).add(id);
+            }
+        }
+        genreBuckets = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : genres.entrySet()) {
+            genreBuckets.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        idsByYear = sortedIds(movieCount, id -> movies[id].getReleaseDate());
+        sortedYears = new int[movieCount];
+        for (int i = 0; i < movieCount; i++) {
+            sortedYears[i] = movies[idsByYear[i]].getReleaseDate();
+        }
+
+        idsByNeighbours = sortedIds(movieCount, id -> -neighbours[id]);
+        sortedNeighbours = new int[movieCount];
+        for (int i = 0; i < movieCount; i++) {
+            sortedNeighbours[i] = neighbours[idsByNeighbours[i]];
+        }
+    }
+
+    /**
+     * @param rng the random number generator to use
+     * @return a uniformly random movie id, or -1 if the catalog is empty
+     */
+    public int sample(Random rng) {
+        return movieCount == 0 ? -1 : rng.nextInt(movieCount);
+    }
+
+    /**
+     * @param genre the genre the movie must have
+     * @param rng   the random number generator to use
+     * @return a uniformly random id among the movies of that genre, or -1 if there are none
+     */
+    public int sampleByGenre(String genre, Random rng) {
+        int[] bucket = genreBuckets.get(genre);
+        return bucket == null ? -1 : bucket[rng.nextInt(bucket.length)];
+    }
+
+    /**
+     * @param fromYear the earliest release year allowed
+     * @param toYear   the latest release year allowed
+     * @param rng      the random number generator to use
+     * @return a uniformly random id among the movies released in that range, or -1 if there are none
+     */
+    public int sampleByYear(int fromYear, int toYear, Random rng) {
+        int lo = lowerBound(sortedYears, fromYear);
+        int hi = lowerBound(sortedYears, toYear + 1);
+        return pick(idsByYear, lo, hi, rng);
+    }
+
+    /**
+     * @param minNeighbours the fewest other movies the movie must connect to
+     * @param rng           the random number generator to use
+     * @return a uniformly random id among the movies with that many neighbours, or -1 if there are none
+     */
+    public int sampleWithMinNeighbours(int minNeighbours, Random rng) {
+        // sortedNeighbours is descending, so count the entries that are >= the minimum
+        int lo = 0;
+        int hi = sortedNeighbours.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedNeighbours[mid] >= minNeighbours) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return pick(idsByNeighbours, 0, lo, rng);
+    }
+
+    private static int pick(int[] ids, int from, int to, Random rng) {
+        return from >= to ? -1 : ids[from + rng.nextInt(to - from)];
+    }
+
+    /**
+     * @return index of the first value that is >= key, or values.length
+     */
+    private static int lowerBound(int[] values, int key) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return the ids 0 to count - 1, ordered by ascending sort key with ties by id
+     */
+    private static int[] sortedIds(int count, IntUnaryOperator key) {
+        long[] packed = new long[count];
+        for (int id = 0; id < count; id++) {
+            packed[id] = ((long) key.applyAsInt(id) << 32) | id;
+        }
+        Arrays.sort(packed);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (int) packed[i];
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,545 @@
+import java.util.*;
+
+/**
+ * Six-degrees queries: the shortest chains of shared-person links between two
+ * movies, or between two people. Searches run a bidirectional breadth-first
+ * search over the Database's {@link ConnectionGraph}, growing whichever side
+ * has the smaller frontier, with int-array queues and long-array bitsets for
+ * the visited sets. Alternatives to the shortest chain come from Yen's
+ * algorithm, which reruns the search with parts of the chains already found
+ * blocked off.
+ *
+ * A finder reuses its scratch arrays between queries, so it allocates little
+ * beyond the paths it returns. It is not thread-safe; give each thread its own.
+ */
+public class PathFinder {
+
+    private static final int ALL_ROLES = (1 << Movie.ROLE_NAMES.length) - 1;
+
+    /**
+     * Which links and movies a chain may use. Filters are immutable; each
+     * with-method returns a narrowed copy.
+     */
+    public static class Filter {
+        private static final Filter ANY = new Filter(ALL_ROLES, Integer.MIN_VALUE, Integer.MAX_VALUE, null);
+
+        private final int roles;
+        private final int fromYear;
+        private final int toYear;
+        private final String genre;
+
+        private Filter(int roles, int fromYear, int toYear, String genre) {
+            this.roles = roles;
+            this.fromYear = fromYear;
+            this.toYear = toYear;
+            this.genre = genre;
+        }
+
+        /**
+         * @return a filter that lets every link and movie through
+         */
+        public static Filter any() {
+            return ANY;
+        }
+
+        /**
+         * Only link movies through people credited in one of the given roles in each of them.
+         *
+         * @param roles role indices defined on {@link Movie}
+         * @return the narrowed filter
+         */
+        public Filter withRoles(int... roles) {
+            int mask = 0;
+            for (int role : roles) {
+                mask |= 1 << role;
+            }
+            return new Filter(mask, fromYear, toYear, genre);
+        }
+
+        /**
+         * Only pass through movies released in a range of years.
+         *
+         * @param fromYear the earliest release year, inclusive
+         * @param toYear   the latest release year, inclusive
+         * @return the narrowed filter
+         */
+        public Filter withYears(int fromYear, int toYear) {
+            return new Filter(roles, fromYear, toYear, genre);
+        }
+
+        /**
+         * Only pass through movies of a genre.
+         *
+         * @param genre the genre
+         * @return the narrowed filter
+         */
+        public Filter withGenre(String genre) {
+            return new Filter(roles, fromYear, toYear, genre);
+        }
+
+        boolean accepts(Movie movie) {
+            int year = movie.getReleaseDate();
+            return year >= fromYear && year <= toYear && (genre == null || movie.getGenres().contains(genre));
+        }
+
+        boolean acceptsEveryMovie() {
+            return fromYear == Integer.MIN_VALUE && toYear == Integer.MAX_VALUE && genre == null;
+        }
+    }
+
+    /**
+     * A chain of movies where each one shares a person with the next.
+     */
+    public static class Path {
+        private final List<Movie> movies;
+        private final List<String> links;
+
+        Path(List<Movie> movies, List<String> links) {
+            this.movies = Collections.unmodifiableList(movies);
+            this.links = Collections.unmodifiableList(links);
+        }
+
+        /**
+         * @return the movies of the chain, in order
+         */
+        public List<Movie> getMovies() {
+            return movies;
+        }
+
+        /**
+         * @return for each pair of consecutive movies, a person credited in both
+         */
+        public List<String> getLinks() {
+            return links;
+        }
+
+        /**
+         * @return the number of links in the chain
+         */
+        public int length() {
+            return links.size();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(movies.get(0).getTitle());
+            for (int i = 0; i < links.size(); i++) {
+                out.append(" -[").append(links.get(i)).append("]- ").append(movies.get(i + 1).getTitle());
+            }
+            return out.toString();
+        }
+    }
+
+    private final Database database;
+    private final int movieCount;
+    private final int[] offsets;
+    private final int[] neighbourIds;
+
+    // movies the current filter lets through, cached until the filter changes
+    private final long[] allowed;
+    private Filter allowedFilter;
+    private int roles = ALL_ROLES;
+    // the two ends of a movie-to-movie query, which the filter does not apply to
+    private int fromEnd = -1;
+    private int toEnd = -1;
+    // movies Yen's algorithm has blocked for the current search
+    private final long[] banned;
+    private int[] bannedNext = new int[0];
+    private int bannedNextCount;
+    private int spur = -1;
+
+    // per search side: visited bits, the movie each movie was reached from, distance, and the queue
+    private final long[][] visited;
+    private final int[][] parent;
+    private final int[][] distance;
+    private final int[][] queue;
+
+    /**
+     * @param database the loaded database to search
+     */
+    public PathFinder(Database database) {
+        this.database = database;
+        ConnectionGraph graph = database.getConnectionGraph();
+        this.movieCount = graph.movieCount();
+        this.offsets = graph.offsets();
+        this.neighbourIds = graph.neighbourIds();
+        int words = (movieCount + 63) >>> 6;
+        this.allowed = new long[words];
+        this.banned = new long[words];
+        this.visited = new long[][] {new long[words], new long[words]};
+        this.parent = new int[][] {new int[movieCount], new int[movieCount]};
+        this.distance = new int[][] {new int[movieCount], new int[movieCount]};
+        this.queue = new int[][] {new int[movieCount], new int[movieCount]};
+    }
+
+    /**
+     * Finds a shortest chain between two movies. The filter's year and genre
+     * limits apply to the movies in between, not to the two ends.
+     *
+     * @param from   the first movie
+     * @param to     the last movie
+     * @param filter the links and movies the chain may use
+     * @return a shortest chain, or null if the movies do not connect
+     */
+    public Path shortestPath(Movie from, Movie to, Filter filter) {
+        List<Path> paths = shortestPaths(from, to, filter, 1);
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+
+    /**
+     * Finds the k shortest chains between two movies, shortest first, no two
+     * alike and none visiting a movie twice. The filter's year and genre limits
+     * apply to the movies in between, not to the two ends.
+     *
+     * @param from   the first movie
+     * @param to     the last movie
+     * @param filter the links and movies the chain may use
+     * @param k      the most chains to return
+     * @return up to k chains
+     */
+    public List<Path> shortestPaths(Movie from, Movie to, Filter filter, int k) {
+        int fromId = database.getMovieId(from);
+        int toId = database.getMovieId(to);
+        if (fromId < 0 || toId < 0) {
+            return Collections.emptyList();
+        }
+        prepare(filter);
+        fromEnd = fromId;
+        toEnd = toId;
+        return kShortest(new int[] {fromId}, new int[] {toId}, k);
+    }
+
+    /**
+     * Finds a shortest chain from a movie credited to one person to a movie
+     * credited to another. The filter limits which movies can start and end the
+     * chain as well as those in between, and with roles set, each person must
+     * be credited in one of them.
+     *
+     * @param from   the first person's name
+     * @param to     the second person's name
+     * @param filter the links and movies the chain may use
+     * @return a shortest chain, or null if the people do not connect
+     */
+    public Path shortestPath(String from, String to, Filter filter) {
+        List<Path> paths = shortestPaths(from, to, filter, 1);
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+
+    /**
+     * Finds the k shortest chains from a movie credited to one person to a
+     * movie credited to another, shortest first.
+     *
+     * @param from   the first person's name
+     * @param to     the second person's name
+     * @param filter the links and movies the chain may use
+     * @param k      the most chains to return
+     * @return up to k chains
+     * @see #shortestPath(String, String, Filter)
+     */
+    public List<Path> shortestPaths(String from, String to, Filter filter, int k) {
+        prepare(filter);
+        fromEnd = -1;
+        toEnd = -1;
+        int[] sources = moviesOf(from);
+        int[] targets = moviesOf(to);
+        if (sources.length == 0 || targets.length == 0) {
+            return Collections.emptyList();
+        }
+        return kShortest(sources, targets, k);
+    }
+
+    /**
+     * @return the ids of the movies the filter lets through that credit the person in an allowed role
+     */
+    private int[] moviesOf(String name) {
+        int person = database.getPersonDictionary().idOf(name);
+        int[] movies = database.getPersonIndex().moviesWithPerson(person);
+        int count = 0;
+        for (int id : movies) {
+            if (getBit(allowed, id) && (database.getMovie(id).getRoleMask(person) & roles) != 0) {
+                movies[count++] = id;
+            }
+        }
+        return Arrays.copyOf(movies, count);
+    }
+
+    /**
+     * Works out which movies the filter lets through, unless it already has.
+     */
+    private void prepare(Filter filter) {
+        roles = filter.roles;
+        if (filter == allowedFilter) {
+            return;
+        }
+        if (filter.acceptsEveryMovie()) {
+            Arrays.fill(allowed, -1L);
+        } else {
+            Arrays.fill(allowed, 0L);
+            for (int id = 0; id < movieCount; id++) {
+                if (filter.accepts(database.getMovie(id))) {
+                    setBit(allowed, id);
+                }
+            }
+        }
+        allowedFilter = filter;
+    }
+
+    /**
+     * Yen's algorithm: each further chain is the shortest that leaves an earlier
+     * chain at some movie (the spur) by a link no earlier chain with the same
+     * start took there, without revisiting the movies before the spur.
+     */
+    private List<Path> kShortest(int[] sources, int[] targets, int k) {
+        List<int[]> found = new ArrayList<>();
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        clearBans();
+        int[] first = search(sources, sources.length, targets);
+        if (first == null) {
+            return Collections.emptyList();
+        }
+        found.add(first);
+
+        PriorityQueue<int[]> candidates = new PriorityQueue<>(Comparator.comparingInt(path -> path.length));
+        int[] spurSources = new int[sources.length];
+        while (found.size() < k) {
+            int[] previous = found.get(found.size() - 1);
+            // spur index -1 means leaving from a different starting movie
+            for (int i = -1; i < previous.length - 1; i++) {
+                clearBans();
+                int sourceCount;
+                if (i < 0) {
+                    sourceCount = 0;
+                    for (int source : sources) {
+                        if (!startsAny(found, source)) {
+                            spurSources[sourceCount++] = source;
+                        }
+                    }
+                } else {
+                    for (int j = 0; j < i; j++) {
+                        setBit(banned, previous[j]);
+                    }
+                    spur = previous[i];
+                    for (int[] path : found) {
+                        if (path.length > i + 1 && Arrays.equals(path, 0, i + 1, previous, 0, i + 1)) {
+                            banNext(path[i + 1]);
+                        }
+                    }
+                    spurSources[0] = spur;
+                    sourceCount = 1;
+                }
+                int[] spurPath = search(spurSources, sourceCount, targets);
+                if (spurPath == null) {
+                    continue;
+                }
+                int rootLength = Math.max(i, 0);
+                int[] path = new int[rootLength + spurPath.length];
+                System.arraycopy(previous, 0, path, 0, rootLength);
+                System.arraycopy(spurPath, 0, path, rootLength, spurPath.length);
+                if (!contains(found, path) && !contains(candidates, path)) {
+                    candidates.add(path);
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            found.add(candidates.poll());
+        }
+        clearBans();
+
+        List<Path> paths = new ArrayList<>(found.size());
+        for (int[] path : found) {
+            paths.add(toPath(path));
+        }
+        return paths;
+    }
+
+    private static boolean startsAny(List<int[]> paths, int movie) {
+        for (int[] path : paths) {
+            if (path[0] == movie) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(Collection<int[]> paths, int[] path) {
+        for (int[] other : paths) {
+            if (Arrays.equals(other, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clearBans() {
+        Arrays.fill(banned, 0L);
+        bannedNextCount = 0;
+        spur = -1;
+    }
+
+    private void banNext(int movie) {
+        if (bannedNextCount == bannedNext.length) {
+            bannedNext = Arrays.copyOf(bannedNext, Math.max(4, bannedNextCount * 2));
+        }
+        bannedNext[bannedNextCount++] = movie;
+    }
+
+    /**
+     * Bidirectional breadth-first search from any source to any target, using
+     * only allowed, unbanned movies and links.
+     *
+     * @return the movie ids of a shortest chain, or null if there is none
+     */
+    private int[] search(int[] sources, int sourceCount, int[] targets) {
+        Arrays.fill(visited[0], 0L);
+        Arrays.fill(visited[1], 0L);
+        int[] head = new int[2];
+        int[] tail = new int[2];
+        for (int i = 0; i < sourceCount; i++) {
+            tail[0] = seed(0, sources[i], tail[0]);
+        }
+        for (int target : targets) {
+            if (getBit(visited[0], target)) {
+                return new int[] {target};
+            }
+            tail[1] = seed(1, target, tail[1]);
+        }
+
+        while (head[0] < tail[0] && head[1] < tail[1]) {
+            int side = tail[0] - head[0] <= tail[1] - head[1] ? 0 : 1;
+            int other = 1 - side;
+            long[] seen = visited[side];
+            long[] seenOther = visited[other];
+            int[] sideQueue = queue[side];
+            int levelEnd = tail[side];
+            int bestLength = Integer.MAX_VALUE;
+            int meetAt = -1;
+            for (; head[side] < levelEnd; head[side]++) {
+                int u = sideQueue[head[side]];
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    int v = neighbourIds[k];
+                    if (getBit(seen, v) || !usable(v) || !linkUsable(u, v)) {
+                        continue;
+                    }
+                    setBit(seen, v);
+                    parent[side][v] = u;
+                    distance[side][v] = distance[side][u] + 1;
+                    sideQueue[tail[side]++] = v;
+                    if (getBit(seenOther, v)) {
+                        int length = distance[side][v] + distance[other][v];
+                        if (length < bestLength) {
+                            bestLength = length;
+                            meetAt = v;
+                        }
+                    }
+                }
+            }
+            // finish the level before joining: a later meeting point may sit closer to the other side
+            if (meetAt >= 0) {
+                return join(meetAt);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts one side of the search at a movie, if it may be used.
+     *
+     * @return the new queue length
+     */
+    private int seed(int side, int movie, int tail) {
+        if (!usable(movie) || getBit(visited[side], movie)) {
+            return tail;
+        }
+        setBit(visited[side], movie);
+        parent[side][movie] = -1;
+        distance[side][movie] = 0;
+        queue[side][tail] = movie;
+        return tail + 1;
+    }
+
+    /**
+     * @return the chain through a movie both sides of the search reached
+     */
+    private int[] join(int meet) {
+        int[] path = new int[distance[0][meet] + distance[1][meet] + 1];
+        int i = distance[0][meet];
+        for (int m = meet; m >= 0; m = parent[0][m]) {
+            path[i--] = m;
+        }
+        i = distance[0][meet];
+        for (int m = parent[1][meet]; m >= 0; m = parent[1][m]) {
+            path[++i] = m;
+        }
+        return path;
+    }
+
+    private boolean usable(int movie) {
+        return (getBit(allowed, movie) || movie == fromEnd || movie == toEnd) && !getBit(banned, movie);
+    }
+
+    /**
+     * @return true if the link between two neighbouring movies passes the role
+     *         filter and is not one Yen's algorithm has blocked
+     */
+    private boolean linkUsable(int u, int v) {
+        if (u == spur || v == spur) {
+            int next = u == spur ? v : u;
+            for (int i = 0; i < bannedNextCount; i++) {
+                if (bannedNext[i] == next) {
+                    return false;
+                }
+            }
+        }
+        return roles == ALL_ROLES || sharedPerson(database.getMovie(u), database.getMovie(v)) >= 0;
+    }
+
+    /**
+     * @return the lowest id of a person credited in an allowed role in each movie, or -1 if there is none
+     */
+    private int sharedPerson(Movie a, Movie b) {
+        int[] idsA = a.getAllPersonIds();
+        int[] idsB = b.getAllPersonIds();
+        byte[] masksA = a.roleMasks();
+        byte[] masksB = b.roleMasks();
+        int i = 0;
+        int j = 0;
+        while (i < idsA.length && j < idsB.length) {
+            if (idsA[i] < idsB[j]) {
+                i++;
+            } else if (idsA[i] > idsB[j]) {
+                j++;
+            } else {
+                if ((masksA[i] & roles) != 0 && (masksB[j] & roles) != 0) {
+                    return idsA[i];
+                }
+                i++;
+                j++;
+            }
+        }
+        return -1;
+    }
+
+    private Path toPath(int[] ids) {
+        PersonDictionary people = database.getPersonDictionary();
+        List<Movie> movies = new ArrayList<>(ids.length);
+        List<String> links = new ArrayList<>(ids.length - 1);
+        for (int i = 0; i < ids.length; i++) {
+            movies.add(database.getMovie(ids[i]));
+            if (i > 0) {
+                links.add(people.nameOf(sharedPerson(movies.get(i - 1), movies.get(i))));
+            }
+        }
+        return new Path(movies, links);
+    }
+
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every distinct person name a dense int id, starting at 0, and keeps
+ * a single copy of each name. Each Database has a dictionary of its own,
+ * shared by every movie it loads, so ids from one load never mean anything in
+ * another and a reload starts from an empty dictionary.
+ *
+ * Lookups are lock-free; interning a new name takes a lock.
+ */
+public class PersonDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[1024];
+    private volatile int size = 0;
+
+    /**
+     * Initialize an empty dictionary.
+     */
+    PersonDictionary() {
+    }
+
+    /**
+     * Returns the id of a name, assigning the next free id if the name is new.
+     *
+     * @param name the person's name
+     * @return the id of the name
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            int next = size;
+            String[] current = names;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            // publish the name before the id so nameOf always sees it
+            current[next] = name;
+            names = current;
+            size = next + 1;
+            ids.put(name, next);
+            return next;
+        }
+    }
+
+    /**
+     * Interns every name and returns their ids sorted and without repeats.
+     *
+     * @param people the names to intern
+     * @return sorted, distinct ids
+     */
+    public int[] internAll(Iterable<String> people) {
+        int[] result = new int[8];
+        int count = 0;
+        for (String name : people) {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count * 2);
+            }
+            result[count++] = intern(name);
+        }
+        return sortedDistinct(result, count);
+    }
+
+    /**
+     * @param name the person's name
+     * @return the id of the name, or -1 if it has never been interned
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id an id returned by {@link #intern(String)}
+     * @return the name with that id
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return the number of names interned so far; every id is below this
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sorts the first count values and drops repeats.
+     *
+     * @param values the values, modified in place
+     * @param count  how many leading values to use
+     * @return a new array holding the sorted distinct values
+     */
+    static int[] sortedDistinct(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, distinct);
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only set of names backed by a sorted array of person ids. Membership
+ * is a dictionary lookup plus a binary search; iteration resolves each id
+ * back to its name. The array is shared, not copied.
+ */
+class PersonIdSet extends AbstractSet<String> {
+    private final int[] ids;
+    private final PersonDictionary dictionary;
+
+    /**
+     * @param ids        sorted, distinct person ids
+     * @param dictionary the dictionary the ids belong to
+     */
+    PersonIdSet(int[] ids, PersonDictionary dictionary) {
+        this.ids = ids;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        int id = dictionary.idOf((String) o);
+        return id >= 0 && Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < ids.length;
+            }
+
+            @Override
+            public String next() {
+                if (next >= ids.length) {
+                    throw new NoSuchElementException();
+                }
+                return dictionary.nameOf(ids[next++]);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * Inverted index from person id to the ids of the movies they are credited
+ * in, stored in compressed sparse row form: the movies of person p are
+ * movieIds[offsets[p]] up to movieIds[offsets[p + 1]], in ascending order.
+ * A person credited in several roles of one movie is listed once.
+ */
+public class PersonMovieIndex {
+    private final int[] offsets;
+    private final int[] movieIds;
+
+    private PersonMovieIndex(int[] offsets, int[] movieIds) {
+        this.offsets = offsets;
+        this.movieIds = movieIds;
+    }
+
+    /**
+     * Builds the index in two passes over the credits: one to count the movies
+     * of each person, one to fill them in.
+     *
+     * @param movies      the movies, where a movie's id is its position in the array
+     * @param personCount one more than the largest person id in use
+     * @return the index
+     */
+    public static PersonMovieIndex build(Movie[] movies, int personCount) {
+        // each movie lists a person once however many roles they have
+        int[] offsets = new int[personCount + 1];
+        for (Movie movie : movies) {
+            for (int person : movie.getAllPersonIds()) {
+                offsets[person + 1]++;
+            }
+        }
+        for (int p = 0; p < personCount; p++) {
+            offsets[p + 1] += offsets[p];
+        }
+
+        int[] movieIds = new int[offsets[personCount]];
+        int[] next = Arrays.copyOf(offsets, personCount);
+        for (int m = 0; m < movies.length; m++) {
+            for (int person : movies[m].getAllPersonIds()) {
+                movieIds[next[person]++] = m;
+            }
+        }
+        return new PersonMovieIndex(offsets, movieIds);
+    }
+
+    /**
+     * @return one more than the largest person id covered by the index
+     */
+    public int personCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @param personId a person id
+     * @return the number of movies the person is credited in
+     */
+    public int movieCount(int personId) {
+        if (personId < 0 || personId >= personCount()) {
+            return 0;
+        }
+        return offsets[personId + 1] - offsets[personId];
+    }
+
+    /**
+     * @param personId a person id
+     * @return the ids of the movies the person is credited in, in ascending order
+     */
+    public int[] moviesWithPerson(int personId) {
+        if (personId < 0 || personId >= personCount()) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(movieIds, offsets[personId], offsets[personId + 1]);
+    }
+
+    /**
+     * @return the row offsets, indexed by person id; callers must not modify it
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the movie ids of every row, back to back; callers must not modify it
+     */
+    int[] movieIds() {
+        return movieIds;
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The titles matching the text typed so far, kept up to date one keystroke at
+ * a time. The cursor walks the {@link TitleTrie}'s radix tree and keeps a
+ * stack with the node reached after every prefix length. Typing a character
+ * either checks it against the run of characters the current node's titles
+ * share or steps to the child it leads to, and a backspace pops back to the
+ * previous node, so typing or deleting a title costs one small step per
+ * character rather than a fresh search.
+ *
+ * Not thread-safe; give each game its own.
+ */
+class PrefixCursor {
+    private final TitleTrie titles;
+    // the lower-cased text the stack was built for
+    private final StringBuilder prefix = new StringBuilder();
+    // nodes[d] holds the titles starting with the first d characters of prefix, or is -1 if none do
+    private int[] nodes = new int[32];
+
+    /**
+     * @param titles the titles to match
+     */
+    PrefixCursor(TitleTrie titles) {
+        this.titles = titles;
+    }
+
+    /**
+     * Brings the matches up to date with the input. Only the characters after
+     * the longest prefix the input shares with the last input are matched
+     * again, so an edit at the end costs one step.
+     *
+     * @param input the text typed so far; case does not matter
+     */
+    void update(CharSequence input) {
+        String lower = input.toString().toLowerCase();
+        int common = 0;
+        int shorter = Math.min(lower.length(), prefix.length());
+        while (common < shorter && lower.charAt(common) == prefix.charAt(common)) {
+            common++;
+        }
+        while (prefix.length() > common) {
+            pop();
+        }
+        for (int i = common; i < lower.length(); i++) {
+            push(lower.charAt(i));
+        }
+    }
+
+    /**
+     * Narrows the matches to the titles that continue with a character.
+     *
+     * @param c the next lower-case character
+     */
+    void push(char c) {
+        int d = prefix.length();
+        if (d + 1 == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+        }
+        int node = nodes[d];
+        if (node >= 0) {
+            if (d < titles.depth(node)) {
+                // still inside the run of characters every title below the node shares
+                if (titles.title(titles.rangeStart(node)).charAt(d) != c) {
+                    node = -1;
+                }
+            } else {
+                node = titles.child(node, c);
+            }
+        }
+        prefix.append(c);
+        nodes[d + 1] = node;
+    }
+
+    /**
+     * Goes back to the matches before the last character.
+     */
+    void pop() {
+        prefix.setLength(prefix.length() - 1);
+    }
+
+    /**
+     * @return the number of titles matching the current input
+     */
+    int count() {
+        return end() - start();
+    }
+
+    /**
+     * @return the position of the first title matching the current input
+     */
+    int start() {
+        int node = nodes[prefix.length()];
+        return node < 0 ? 0 : titles.rangeStart(node);
+    }
+
+    /**
+     * @return one past the position of the last title matching the current input
+     */
+    int end() {
+        int node = nodes[prefix.length()];
+        return node < 0 ? 0 : titles.rangeEnd(node);
+    }
+
+    /**
+     * @param limit the most titles to return
+     * @return the first matching titles, in sorted order
+     */
+    List<String> first(int limit) {
+        int start = start();
+        return titles.titles().subList(start, Math.min(end(), start + limit));
+    }
+}
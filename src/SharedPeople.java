@@ -0,0 +1,100 @@
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Finds the people two movies have in common by merging their sorted
+ * all-people id arrays, without building any sets. The result lands in a
+ * buffer that is reused by the next call, so once the buffer has grown to fit
+ * the largest cast a comparison allocates nothing.
+ *
+ * Ids are those of one dictionary, normally the Database's. A movie from
+ * another dictionary, such as one built by hand, is looked up by name, which
+ * does allocate.
+ *
+ * Not thread-safe; give each game its own.
+ */
+class SharedPeople {
+    private final PersonDictionary dictionary;
+    private int[] ids = new int[16];
+    private int size;
+
+    /**
+     * @param dictionary the dictionary the shared ids are taken from
+     */
+    SharedPeople(PersonDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Replaces the buffer contents with the ids of the people credited in both movies.
+     *
+     * @param a a movie
+     * @param b another movie
+     * @return the number of shared people
+     */
+    int compute(Movie a, Movie b) {
+        int[] idsA = a.getAllPersonIds(dictionary);
+        int[] idsB = b.getAllPersonIds(dictionary);
+        if (ids.length < Math.min(idsA.length, idsB.length)) {
+            ids = new int[Math.max(ids.length * 2, Math.min(idsA.length, idsB.length))];
+        }
+        size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < idsA.length && j < idsB.length) {
+            if (idsA[i] < idsB[j]) {
+                i++;
+            } else if (idsA[i] > idsB[j]) {
+                j++;
+            } else {
+                ids[size++] = idsA[i];
+                i++;
+                j++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes the person at an index, keeping the rest in order.
+     *
+     * @param index position in the buffer
+     */
+    void remove(int index) {
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * @return the number of people in the buffer
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index position in the buffer
+     * @return the person id at that position; ids are in ascending order
+     */
+    int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index position in the buffer
+     * @return the name of the person at that position
+     */
+    String nameAt(int index) {
+        return dictionary.nameOf(ids[index]);
+    }
+
+    /**
+     * Copies the buffer out for keeping past the next {@link #compute}. Only
+     * the ids are copied; names are resolved when the set is read.
+     *
+     * @return a read-only set of the people in the buffer
+     */
+    Set<String> snapshot() {
+        return new PersonIdSet(Arrays.copyOf(ids, size), dictionary);
+    }
+}
@@ -0,0 +1,351 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * How playable each movie is as the opening movie of a game: its branching
+ * factor (the movies it connects to), its two-hop reach (the movies within two
+ * links), and the outcome of solving the opening a few moves deep. Ratings are
+ * indexed by movie id and computed in parallel on every core, then cached in a
+ * file next to the CSV, keyed by the CSV's hash like the {@link CompiledCatalog}
+ * snapshot.
+ *
+ * The solve treats the game as a pure connection game, since the scoring genre
+ * is only picked when a game starts: a player with no legal move loses.
+ */
+public class StartRatings {
+
+    /** The player who moves first from the start can force a win within the solve depth. */
+    public static final int FIRST_PLAYER_WINS = 1;
+    /** Neither player can force a win within the solve depth. */
+    public static final int UNDECIDED = 0;
+    /** The second player can force a win within the solve depth. */
+    public static final int SECOND_PLAYER_WINS = -1;
+
+    public static final int DEFAULT_DEPTH = 2;
+    // starts with fewer neighbours than this run dry too soon to be fun
+    private static final int MIN_BRANCHING = 5;
+    // positions one start may visit before its solve gives up as undecided
+    static final long NODE_LIMIT = 100_000;
+    // movies rated by one fork-join leaf
+    private static final int MIN_BLOCK = 64;
+
+    private static final int MAGIC = 0x4D565254; // "MVRT"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".ratings";
+
+    private final int depth;
+    private final int[] branching;
+    private final int[] twoHopReach;
+    private final byte[] outcomes;
+
+    private StartRatings(int depth, int[] branching, int[] twoHopReach, byte[] outcomes) {
+        this.depth = depth;
+        this.branching = branching;
+        this.twoHopReach = twoHopReach;
+        this.outcomes = outcomes;
+    }
+
+    /**
+     * Rates every movie of a CSV, reading the cached ratings if they were
+     * computed from exactly this CSV at this depth, and computing and caching
+     * them otherwise.
+     *
+     * @param args the CSV file, and optionally the solve depth
+     */
+    public static void main(String[] args) throws IOException {
+        String filePath = args.length > 0 ? args[0] : "cleaned_imdb_final.csv";
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+        Database database = new Database();
+        database.load(filePath);
+        long start = System.nanoTime();
+        StartRatings ratings = loadOrCompute(database, Paths.get(filePath), depth);
+        System.out.printf("Rated %d movies in %d ms%n", ratings.movieCount(), (System.nanoTime() - start) / 1_000_000);
+
+        int[] counts = new int[3];
+        for (int id = 0; id < ratings.movieCount(); id++) {
+            counts[ratings.getOutcome(id) + 1]++;
+        }
+        System.out.printf("first player wins: %d, second player wins: %d, undecided: %d, fair starts: %d%n",
+                counts[2], counts[0], counts[1], ratings.fairStarts().length);
+    }
+
+    /**
+     * @param csv the source CSV
+     * @return where the ratings for that CSV are kept
+     */
+    public static Path ratingsPathFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Reads the cached ratings for a CSV, or computes them and writes the cache
+     * if it is missing, stale or was solved to another depth.
+     *
+     * @param database the database loaded from the CSV
+     * @param csv      the CSV
+     * @param depth    how many moves deep to solve each start
+     * @return the ratings
+     */
+    public static StartRatings loadOrCompute(Database database, Path csv, int depth) throws IOException {
+        long sourceHash = CompiledCatalog.hash(csv);
+        Path cache = ratingsPathFor(csv);
+        StartRatings ratings = read(cache, sourceHash, depth, database.getMovieCount());
+        if (ratings == null) {
+            ratings = compute(database, depth);
+            ratings.write(cache, sourceHash);
+        }
+        return ratings;
+    }
+
+    /**
+     * Rates every movie of a loaded database, spreading the movies over the
+     * common fork-join pool. Each worker thread sets up its scratch array and
+     * search position once and reuses them for every movie it rates.
+     *
+     * @param database the loaded database
+     * @param depth    how many moves deep to solve each start
+     * @return the ratings
+     */
+    public static StartRatings compute(Database database, int depth) {
+        int movieCount = database.getMovieCount();
+        StartRatings ratings = new StartRatings(depth, new int[movieCount], new int[movieCount], new byte[movieCount]);
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(database));
+        ForkJoinPool.commonPool().invoke(new RateTask(database, ratings, workers, 0, movieCount));
+        return ratings;
+    }
+
+    /**
+     * @return the number of movies rated
+     */
+    public int movieCount() {
+        return branching.length;
+    }
+
+    /**
+     * @return how many moves deep each start was solved
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @param movieId a movie id
+     * @return the number of movies it connects to
+     */
+    public int getBranchingFactor(int movieId) {
+        return branching[movieId];
+    }
+
+    /**
+     * @param movieId a movie id
+     * @return the number of other movies at most two links away
+     */
+    public int getTwoHopReach(int movieId) {
+        return twoHopReach[movieId];
+    }
+
+    /**
+     * @param movieId a movie id
+     * @return {@link #FIRST_PLAYER_WINS}, {@link #SECOND_PLAYER_WINS} or {@link #UNDECIDED}
+     */
+    public int getOutcome(int movieId) {
+        return outcomes[movieId];
+    }
+
+    /**
+     * @param movieId a movie id
+     * @return true if neither player can force a win from it and it has enough neighbours
+     */
+    public boolean isFairStart(int movieId) {
+        return outcomes[movieId] == UNDECIDED && branching[movieId] >= MIN_BRANCHING;
+    }
+
+    /**
+     * @return the ids of every fair start, in ascending order
+     */
+    public int[] fairStarts() {
+        int[] starts = new int[branching.length];
+        int count = 0;
+        for (int id = 0; id < branching.length; id++) {
+            if (isFairStart(id)) {
+                starts[count++] = id;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Picks a random fair start.
+     *
+     * @param database the database the ratings were computed for
+     * @param rng      the random source
+     * @return a fair starting movie, or any random movie if none is fair
+     */
+    public Movie randomFairStart(Database database, Random rng) {
+        int fair = 0;
+        for (int id = 0; id < branching.length; id++) {
+            if (isFairStart(id)) {
+                fair++;
+            }
+        }
+        if (fair == 0) {
+            return database.getRandomMovie(rng);
+        }
+        int pick = rng.nextInt(fair);
+        for (int id = 0; ; id++) {
+            if (isFairStart(id) && pick-- == 0) {
+                return database.getMovie(id);
+            }
+        }
+    }
+
+    /**
+     * Writes the ratings, moving the file into place once complete.
+     *
+     * @param path       where to write them
+     * @param sourceHash the hash of the CSV the database was loaded from
+     */
+    void write(Path path, long sourceHash) throws IOException {
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceHash);
+                out.writeInt(depth);
+                out.writeInt(branching.length);
+                for (int value : branching) {
+                    out.writeInt(value);
+                }
+                for (int value : twoHopReach) {
+                    out.writeInt(value);
+                }
+                out.write(outcomes);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads cached ratings, as long as they match the CSV, depth and movie count.
+     *
+     * @return the ratings, or null if the file is missing, stale or corrupt
+     */
+    static StartRatings read(Path path, long sourceHash, int depth, int movieCount) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != sourceHash
+                    || in.getInt() != depth || in.getInt() != movieCount) {
+                return null;
+            }
+            int[] branching = new int[movieCount];
+            int[] twoHopReach = new int[movieCount];
+            byte[] outcomes = new byte[movieCount];
+            in.asIntBuffer().get(branching);
+            in.position(in.position() + 4 * movieCount);
+            in.asIntBuffer().get(twoHopReach);
+            in.position(in.position() + 4 * movieCount);
+            in.get(outcomes);
+            return new StartRatings(depth, branching, twoHopReach, outcomes);
+        } catch (RuntimeException e) {
+            // a truncated cache is treated like a stale one
+            return null;
+        }
+    }
+
+    /**
+     * What one worker thread reuses for every movie it rates. Marks in seen
+     * are unique to a movie, and a solve takes back every move it makes, so
+     * neither needs resetting between movies.
+     */
+    private static class Worker {
+        // seen[k] == m + 1 once movie k has been counted for movie m
+        final int[] seen;
+        final ComputerPlayer.Position position;
+
+        Worker(Database database) {
+            seen = new int[database.getMovieCount()];
+            position = ComputerPlayer.Position.start(database, 0);
+        }
+    }
+
+    /**
+     * Fork-join task rating a range of movies.
+     */
+    private static class RateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Database database;
+        private final StartRatings ratings;
+        private final ThreadLocal<Worker> workers;
+        private final int from;
+        private final int to;
+
+        RateTask(Database database, StartRatings ratings, ThreadLocal<Worker> workers, int from, int to) {
+            this.database = database;
+            this.ratings = ratings;
+            this.workers = workers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MIN_BLOCK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RateTask(database, ratings, workers, from, mid),
+                        new RateTask(database, ratings, workers, mid, to));
+                return;
+            }
+            ConnectionGraph graph = database.getConnectionGraph();
+            int[] offsets = graph.offsets();
+            int[] neighbourIds = graph.neighbourIds();
+            Worker worker = workers.get();
+            int[] seen = worker.seen;
+            ComputerPlayer.Position position = worker.position;
+            for (int m = from; m < to; m++) {
+                ratings.branching[m] = offsets[m + 1] - offsets[m];
+                seen[m] = m + 1;
+                int reach = 0;
+                for (int k = offsets[m]; k < offsets[m + 1]; k++) {
+                    int first = neighbourIds[k];
+                    if (seen[first] != m + 1) {
+                        seen[first] = m + 1;
+                        reach++;
+                    }
+                    for (int j = offsets[first]; j < offsets[first + 1]; j++) {
+                        int second = neighbourIds[j];
+                        if (seen[second] != m + 1) {
+                            seen[second] = m + 1;
+                            reach++;
+                        }
+                    }
+                }
+                ratings.twoHopReach[m] = reach;
+                position.restartAt(m);
+                ratings.outcomes[m] = (byte) position.solve(ratings.depth, NODE_LIMIT);
+            }
+        }
+    }
+}
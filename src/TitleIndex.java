@@ -0,0 +1,50 @@
+import java.util.*;
+
+/**
+ * Everything autocomplete looks titles up in: the {@link TitleTrie} for prefix
+ * and typo-tolerant matches, and the {@link TitleTokenIndex} for matches on
+ * words inside a title. A Database builds one alongside its other indexes, and
+ * every game on that Database shares it by reference, so starting a game costs
+ * the same however large the catalog is.
+ *
+ * An index is immutable once built and can be shared between threads.
+ */
+public class TitleIndex {
+
+    /** An index with no titles, for games that have no Database yet. */
+    public static final TitleIndex EMPTY = new TitleIndex(Collections.emptyList());
+
+    private final TitleTrie titles;
+    private final TitleTokenIndex words;
+
+    /**
+     * Builds the index over a set of titles.
+     *
+     * @param titles the titles; they are lower-cased, and duplicates are dropped
+     */
+    public TitleIndex(Collection<String> titles) {
+        this.titles = new TitleTrie(titles);
+        this.words = new TitleTokenIndex(this.titles);
+    }
+
+    /**
+     * @return the number of distinct titles
+     */
+    public int size() {
+        return titles.size();
+    }
+
+    /**
+     * @return the titles, sorted, for prefix and typo-tolerant lookups
+     */
+    public TitleTrie getTitles() {
+        return titles;
+    }
+
+    /**
+     * @return the words of the titles, for lookups on words inside a title
+     */
+    public TitleTokenIndex getWords() {
+        return words;
+    }
+}
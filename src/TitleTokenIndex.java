@@ -0,0 +1,251 @@
+import java.util.*;
+
+/**
+ * Word lookup over the titles of a {@link TitleTrie}, so that "dark knight" or
+ * "knight ris" finds "the dark knight rises (2012)".
+ *
+ * Titles are split into words at every character that is not a letter or
+ * digit. The index keeps the sorted list of distinct words and, for each word,
+ * the positions of the titles containing it in the trie's sorted order. A query
+ * matches the titles that contain each of its complete words and a word
+ * starting with its last, partly typed word. Position order is alphabetical
+ * order, so results come out in the same stable order as prefix completions.
+ *
+ * An index is immutable once built and can be shared between threads.
+ */
+public class TitleTokenIndex {
+
+    private final TitleTrie titles;
+    // the distinct words of every title, sorted
+    private final String[] words;
+    // the titles containing words[w] are titleIds[offsets[w]] to titleIds[offsets[w + 1] - 1], ascending
+    private final int[] offsets;
+    private final int[] titleIds;
+
+    /**
+     * Builds the index over a trie's titles.
+     *
+     * @param titles the titles to index
+     */
+    public TitleTokenIndex(TitleTrie titles) {
+        this.titles = titles;
+        // first pass: count the titles each word appears in
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < titles.size(); i++) {
+            for (String word : distinctWords(titles.title(i))) {
+                counts.merge(word, 1, Integer::sum);
+            }
+        }
+        this.words = counts.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        this.offsets = new int[words.length + 1];
+        Map<String, Integer> wordIds = new HashMap<>(counts.size() * 2);
+        for (int w = 0; w < words.length; w++) {
+            offsets[w + 1] = offsets[w] + counts.get(words[w]);
+            wordIds.put(words[w], w);
+        }
+        // second pass: titles are visited in order, so every list comes out ascending
+        this.titleIds = new int[offsets[words.length]];
+        int[] fill = Arrays.copyOf(offsets, words.length);
+        for (int i = 0; i < titles.size(); i++) {
+            for (String word : distinctWords(titles.title(i))) {
+                titleIds[fill[wordIds.get(word)]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Splits lower-cased text into words.
+     *
+     * @param text the text
+     * @return its words, in order, repeats included
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static Collection<String> distinctWords(String title) {
+        return new LinkedHashSet<>(words(title));
+    }
+
+    /**
+     * @return the number of distinct words
+     */
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * Lists the first titles, in sorted order, containing every word of a query.
+     * The last word matches any word it starts, unless the query ends in a space
+     * or punctuation; the others must match whole words.
+     *
+     * @param query the text typed so far; case does not matter
+     * @param limit the most titles to return
+     * @return up to limit matching titles, lower-cased
+     */
+    public List<String> complete(CharSequence query, int limit) {
+        String lower = query.toString().toLowerCase();
+        List<String> typed = words(lower);
+        if (typed.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String partial = null;
+        if (Character.isLetterOrDigit(lower.charAt(lower.length() - 1))) {
+            partial = typed.remove(typed.size() - 1);
+        }
+
+        int[] whole = new int[typed.size()];
+        int shortest = -1;
+        for (int k = 0; k < whole.length; k++) {
+            whole[k] = Arrays.binarySearch(words, typed.get(k));
+            if (whole[k] < 0) {
+                return Collections.emptyList();
+            }
+            if (shortest < 0 || postingCount(whole[k]) < postingCount(whole[shortest])) {
+                shortest = k;
+            }
+        }
+        int from = 0;
+        int to = 0;
+        if (partial != null) {
+            from = lowerBound(partial);
+            to = upperBound(partial, from);
+            if (from == to) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<String> found = new ArrayList<>();
+        if (shortest < 0) {
+            // a single partly typed word: merge the smallest positions of each word it starts
+            for (int id : firstOfUnion(from, to, limit)) {
+                found.add(titles.title(id));
+            }
+            return found;
+        }
+        int partialCount = partial == null ? Integer.MAX_VALUE : offsets[to] - offsets[from];
+        int[] candidates;
+        if (partialCount < postingCount(whole[shortest])) {
+            candidates = union(from, to);
+        } else {
+            candidates = Arrays.copyOfRange(titleIds, offsets[whole[shortest]], offsets[whole[shortest] + 1]);
+        }
+        for (int id : candidates) {
+            if (found.size() == limit) {
+                break;
+            }
+            if (containsAll(id, whole) && (partial == null || hasWordStarting(titles.title(id), partial))) {
+                found.add(titles.title(id));
+            }
+        }
+        return found;
+    }
+
+    private int postingCount(int word) {
+        return offsets[word + 1] - offsets[word];
+    }
+
+    private boolean containsAll(int titleId, int[] whole) {
+        for (int word : whole) {
+            if (Arrays.binarySearch(titleIds, offsets[word], offsets[word + 1], titleId) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasWordStarting(String title, String prefix) {
+        for (int i = title.indexOf(prefix); i >= 0; i = title.indexOf(prefix, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(title.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the distinct titles containing any of words[from] to words[to - 1], ascending
+     */
+    private int[] union(int from, int to) {
+        int[] ids = Arrays.copyOfRange(titleIds, offsets[from], offsets[to]);
+        if (to - from > 1) {
+            Arrays.sort(ids);
+        }
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (count == 0 || ids[count - 1] != ids[i]) {
+                ids[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * @return the limit smallest distinct titles containing any of words[from] to
+     *         words[to - 1], ascending; only the head of each word's list can hold them
+     */
+    private int[] firstOfUnion(int from, int to, int limit) {
+        int[] best = new int[limit];
+        int count = 0;
+        for (int w = from; w < to; w++) {
+            for (int k = offsets[w]; k < offsets[w + 1]; k++) {
+                int id = titleIds[k];
+                if (count == limit && id >= best[limit - 1]) {
+                    break;
+                }
+                // insert into the sorted best list, skipping titles already in it
+                int at = Arrays.binarySearch(best, 0, count, id);
+                if (at >= 0) {
+                    continue;
+                }
+                at = -at - 1;
+                if (count < limit) {
+                    count++;
+                }
+                System.arraycopy(best, at, best, at + 1, count - 1 - at);
+                best[at] = id;
+            }
+        }
+        return Arrays.copyOf(best, count);
+    }
+
+    private int lowerBound(String prefix) {
+        int lo = 0;
+        int hi = words.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (words[mid].compareTo(prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int lo = from;
+        int hi = words.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (words[mid].startsWith(prefix)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,351 @@
+import java.util.*;
+
+/**
+ * Prefix lookup over lower-cased movie titles, for autocomplete.
+ *
+ * The titles are kept sorted in one array, so the titles starting with any
+ * prefix form a contiguous range of it. A radix tree over that array finds the
+ * range: each node stands for the prefix shared by every title in its range,
+ * and single-child chains are collapsed, so the tree has fewer nodes than there
+ * are titles. Nodes are laid out breadth-first in parallel arrays, with the
+ * children of a node stored next to each other and sorted by the character that
+ * leads to them. A node's best k completions are the first k titles of its
+ * range, so looking up a prefix costs one step per character and does not
+ * depend on how many titles there are.
+ *
+ * A trie is immutable once built and can be shared between threads.
+ */
+public class TitleTrie {
+
+    private final String[] titles;
+    // per node: the range of titles below it, and the length of the prefix they all share
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    private final int[] depth;
+    // the children of node n are nodes firstChild[n] to firstChild[n + 1] - 1
+    private final int[] firstChild;
+    // the character at the parent's depth that leads to each node
+    private final char[] edge;
+
+    /**
+     * Builds the trie over a set of titles.
+     *
+     * @param titles the titles; they are lower-cased, and duplicates are dropped
+     */
+    public TitleTrie(Collection<String> titles) {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String title : titles) {
+            sorted.add(title.toLowerCase());
+        }
+        this.titles = sorted.toArray(new String[0]);
+
+        int capacity = Math.max(1, 2 * this.titles.length);
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        int[] depths = new int[capacity];
+        int[] children = new int[capacity + 1];
+        char[] edges = new char[capacity];
+        starts[0] = 0;
+        ends[0] = this.titles.length;
+        int nodeCount = 1;
+        // nodes are numbered in the order they are queued, which is breadth-first
+        for (int node = 0; node < nodeCount; node++) {
+            int lo = starts[node];
+            int hi = ends[node];
+            children[node] = nodeCount;
+            if (lo == hi) {
+                continue;
+            }
+            // in sorted order, the prefix the whole range shares is the one its ends share
+            int d = commonPrefix(this.titles[lo], this.titles[hi - 1]);
+            depths[node] = d;
+            // a title that ends here sorts before the titles that continue it
+            int from = this.titles[lo].length() == d ? lo + 1 : lo;
+            while (from < hi) {
+                char c = this.titles[from].charAt(d);
+                int to = from + 1;
+                while (to < hi && this.titles[to].charAt(d) == c) {
+                    to++;
+                }
+                if (nodeCount == starts.length) {
+                    starts = Arrays.copyOf(starts, nodeCount * 2);
+                    ends = Arrays.copyOf(ends, nodeCount * 2);
+                    depths = Arrays.copyOf(depths, nodeCount * 2);
+                    children = Arrays.copyOf(children, nodeCount * 2 + 1);
+                    edges = Arrays.copyOf(edges, nodeCount * 2);
+                }
+                starts[nodeCount] = from;
+                ends[nodeCount] = to;
+                edges[nodeCount] = c;
+                nodeCount++;
+                from = to;
+            }
+        }
+        children[nodeCount] = nodeCount;
+        this.rangeStart = Arrays.copyOf(starts, nodeCount);
+        this.rangeEnd = Arrays.copyOf(ends, nodeCount);
+        this.depth = Arrays.copyOf(depths, nodeCount);
+        this.firstChild = Arrays.copyOf(children, nodeCount + 1);
+        this.edge = Arrays.copyOf(edges, nodeCount);
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the number of distinct titles
+     */
+    public int size() {
+        return titles.length;
+    }
+
+    /**
+     * @return every title, lower-cased and in sorted order
+     */
+    public List<String> titles() {
+        return Collections.unmodifiableList(Arrays.asList(titles));
+    }
+
+    /**
+     * @param index a position in the sorted titles
+     * @return the title at that position
+     */
+    public String title(int index) {
+        return titles[index];
+    }
+
+    /**
+     * @param lowerTitle a lower-cased title
+     * @return its position in the sorted titles, or -1 if it is not one of them
+     */
+    int indexOf(String lowerTitle) {
+        int index = Arrays.binarySearch(titles, lowerTitle);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Lists the first titles, in sorted order, that start with a prefix.
+     *
+     * @param prefix the text typed so far; case does not matter
+     * @param limit  the most titles to return
+     * @return up to limit matching titles, lower-cased
+     */
+    public List<String> complete(CharSequence prefix, int limit) {
+        int node = find(prefix.toString().toLowerCase());
+        if (node < 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int end = Math.min(rangeEnd[node], rangeStart[node] + limit);
+        return Arrays.asList(titles).subList(rangeStart[node], end);
+    }
+
+    /**
+     * Lists titles that start with something within a few typing mistakes of a
+     * prefix: the closest matches first, and titles at the same distance in
+     * sorted order. A mistake is one inserted, deleted or substituted character.
+     *
+     * The search walks the trie depth first, keeping a row of edit distances
+     * between the prefix and the path so far, and skips any subtree where every
+     * entry of the row is already over the limit. It runs once per allowed
+     * distance, starting with exact matches, and stops as soon as it has enough
+     * titles. If the time budget runs out it returns what it has found so far.
+     *
+     * @param prefix      the text typed so far; case does not matter
+     * @param maxEdits    the most mistakes to allow
+     * @param limit       the most titles to return
+     * @param budgetNanos how long the search may take
+     * @return up to limit titles, lower-cased
+     */
+    public List<String> completeFuzzy(CharSequence prefix, int maxEdits, int limit, long budgetNanos) {
+        if (titles.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        FuzzySearch search = new FuzzySearch(prefix.toString().toLowerCase(), limit,
+                System.nanoTime() + budgetNanos);
+        for (int edits = 0; edits <= maxEdits && !search.done(); edits++) {
+            search.edits = edits;
+            if (search.rows[0][search.query.length()] <= edits) {
+                // the prefix is short enough to match anything
+                search.take(0, titles.length);
+                break;
+            }
+            search.walk(0, 0);
+        }
+        return search.found;
+    }
+
+    /**
+     * State of one {@link #completeFuzzy} call.
+     */
+    private class FuzzySearch {
+        // character steps between looks at the clock
+        private static final int CHECK_INTERVAL = 256;
+
+        final String query;
+        final int limit;
+        final long deadline;
+        final List<String> found = new ArrayList<>();
+        // positions of the titles found so far, so a later pass does not list them again
+        final Set<Integer> foundIndices = new HashSet<>();
+        // rows[d][j] is the edit distance between the first j query characters and the first d path characters
+        int[][] rows = new int[16][];
+        int edits;
+        int steps;
+        boolean timedOut;
+
+        FuzzySearch(String query, int limit, long deadline) {
+            this.query = query;
+            this.limit = limit;
+            this.deadline = deadline;
+            rows[0] = new int[query.length() + 1];
+            for (int j = 0; j <= query.length(); j++) {
+                rows[0][j] = j;
+            }
+        }
+
+        boolean done() {
+            return found.size() >= limit || timedOut;
+        }
+
+        /**
+         * Follows a node's edge from a depth, then its children, adding every
+         * title below a point where the whole query is within the allowed edits.
+         */
+        void walk(int node, int from) {
+            String title = titles[rangeStart[node]];
+            int n = query.length();
+            for (int d = from; d < depth[node]; d++) {
+                if ((++steps & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+                    timedOut = true;
+                    return;
+                }
+                int[] row = step(d, title.charAt(d));
+                if (row[n] <= edits) {
+                    take(rangeStart[node], rangeEnd[node]);
+                    return;
+                }
+                if (min(row) > edits) {
+                    return;
+                }
+            }
+            for (int child = firstChild[node]; child < firstChild[node + 1] && !done(); child++) {
+                walk(child, depth[node]);
+            }
+        }
+
+        /**
+         * Computes rows[d + 1] from rows[d] for the path character c.
+         */
+        int[] step(int d, char c) {
+            if (d + 1 == rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            int[] previous = rows[d];
+            int[] row = rows[d + 1];
+            if (row == null) {
+                row = rows[d + 1] = new int[query.length() + 1];
+            }
+            row[0] = previous[0] + 1;
+            for (int j = 1; j < row.length; j++) {
+                int substitute = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                row[j] = Math.min(substitute, Math.min(previous[j], row[j - 1]) + 1);
+            }
+            return row;
+        }
+
+        private int min(int[] row) {
+            int min = row[0];
+            for (int value : row) {
+                min = Math.min(min, value);
+            }
+            return min;
+        }
+
+        void take(int from, int to) {
+            for (int i = from; i < to && found.size() < limit; i++) {
+                if (foundIndices.add(i)) {
+                    found.add(titles[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the node whose range holds the titles starting with a lower-cased prefix.
+     *
+     * @return the node, or -1 if no title starts with the prefix
+     */
+    int find(String prefix) {
+        if (titles.length == 0) {
+            return -1;
+        }
+        int node = 0;
+        int pos = 0;
+        while (true) {
+            // check the collapsed part of the edge against the representative title
+            String title = titles[rangeStart[node]];
+            int end = Math.min(prefix.length(), depth[node]);
+            for (; pos < end; pos++) {
+                if (title.charAt(pos) != prefix.charAt(pos)) {
+                    return -1;
+                }
+            }
+            if (pos == prefix.length()) {
+                return node;
+            }
+            node = child(node, prefix.charAt(pos));
+            if (node < 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @return the child of a node reached by a character, or -1 if there is none
+     */
+    int child(int node, char c) {
+        int lo = firstChild[node];
+        int hi = firstChild[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (edge[mid] < c) {
+                lo = mid + 1;
+            } else if (edge[mid] > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param node a node
+     * @return the position of the first title in its range
+     */
+    int rangeStart(int node) {
+        return rangeStart[node];
+    }
+
+    /**
+     * @param node a node
+     * @return one past the position of the last title in its range
+     */
+    int rangeEnd(int node) {
+        return rangeEnd[node];
+    }
+
+    /**
+     * @param node a node
+     * @return the length of the prefix every title in its range shares
+     */
+    int depth(int node) {
+        return depth[node];
+    }
+}
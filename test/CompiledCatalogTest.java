@@ -0,0 +1,124 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class CompiledCatalogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writeCsv(String... lines) throws IOException {
+        Path csv = folder.getRoot().toPath().resolve("movies.csv");
+        Files.write(csv, List.of(lines));
+        return csv;
+    }
+
+    @Test
+    public void testRoundTripMatchesCsv() throws IOException {
+        Path csv = writeCsv(
+                "Heat,\"director: Michael Mann, actor: Al Pacino, actor: Robert De Niro\",\"{'genres: Crime', 'genres: Drama'}\",1995-12-15",
+                "Ronin,\"actor: Robert De Niro, composer: Elia Cmiral\",\"{'genres: Action'}\",1998-09-25",
+                "Iguana,\"actor: Everett McGill\",set(),");
+        Database parsed = new Database();
+        parsed.loadFromCSV(csv.toString());
+        long hash = CompiledCatalog.hash(csv);
+        Path snapshot = CompiledCatalog.snapshotPathFor(csv);
+        CompiledCatalog.compile(parsed, hash, snapshot);
+
+        Database opened = new Database();
+        assertTrue(CompiledCatalog.open(snapshot, hash, opened));
+        assertEquals(parsed.getMovieNameSet(), opened.getMovieNameSet());
+        for (String title : parsed.getMovieNameSet()) {
+            Movie expected = parsed.getMovieByName(title);
+            Movie actual = opened.getMovieByName(title);
+            assertEquals(expected.getReleaseDate(), actual.getReleaseDate());
+            assertEquals(expected.getGenres(), actual.getGenres());
+            for (int role = 0; role < Movie.ROLE_NAMES.length; role++) {
+                assertEquals(expected.getPeopleInRole(role), actual.getPeopleInRole(role));
+            }
+            assertEquals(parsed.getPeopleByTitle(title), opened.getPeopleByTitle(title));
+        }
+    }
+
+    @Test
+    public void testStaleSnapshotIsRejected() throws IOException {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        Database parsed = new Database();
+        parsed.loadFromCSV(csv.toString());
+        Path snapshot = CompiledCatalog.snapshotPathFor(csv);
+        CompiledCatalog.compile(parsed, CompiledCatalog.hash(csv), snapshot);
+
+        writeCsv("Heat,\"actor: Val Kilmer\",\"{'genres: Crime'}\",1995-12-15");
+        Database opened = new Database();
+        assertFalse(CompiledCatalog.open(snapshot, CompiledCatalog.hash(csv), opened));
+        assertTrue(opened.getMovieNameSet().isEmpty());
+    }
+
+    @Test
+    public void testLoadRebuildsStaleSnapshot() throws IOException {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        Database first = new Database();
+        first.load(csv.toString());
+        assertTrue(Files.exists(CompiledCatalog.snapshotPathFor(csv)));
+
+        writeCsv("Heat,\"actor: Val Kilmer\",\"{'genres: Crime'}\",1995-12-15");
+        Database second = new Database();
+        second.load(csv.toString());
+        assertEquals(Set.of("Val Kilmer"), second.getMovieByName("Heat (1995)").getActors());
+
+        Database third = new Database();
+        assertTrue(CompiledCatalog.open(CompiledCatalog.snapshotPathFor(csv), CompiledCatalog.hash(csv), third));
+        assertEquals(Set.of("Val Kilmer"), third.getMovieByName("Heat (1995)").getActors());
+    }
+
+    @Test
+    public void testCorruptSnapshotIsRejected() throws IOException {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        Database parsed = new Database();
+        parsed.loadFromCSV(csv.toString());
+        long hash = CompiledCatalog.hash(csv);
+        Path snapshot = CompiledCatalog.snapshotPathFor(csv);
+        CompiledCatalog.compile(parsed, hash, snapshot);
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        assertFalse(CompiledCatalog.open(snapshot, hash, new Database()));
+    }
+
+    @Test
+    public void testCorruptSnapshotLeavesTheDictionaryClean() throws IOException {
+        Path csv = writeCsv(
+                "Heat,\"actor: Al Pacino, actor: Val Kilmer\",\"{'genres: Crime'}\",1995-12-15",
+                "Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",1998-09-25");
+        Database clean = new Database();
+        clean.loadFromCSV(csv.toString());
+        long hash = CompiledCatalog.hash(csv);
+        Path snapshot = CompiledCatalog.snapshotPathFor(csv);
+        CompiledCatalog.compile(clean, hash, snapshot);
+
+        // point the last person id past the string table, so decoding fails after Heat's people
+        byte[] bytes = Files.readAllBytes(snapshot);
+        java.nio.ByteBuffer.wrap(bytes).putInt(bytes.length - 4, Integer.MAX_VALUE);
+        Files.write(snapshot, bytes);
+        Database database = new Database();
+        PersonDictionary before = database.getPersonDictionary();
+        assertFalse(CompiledCatalog.open(snapshot, hash, database));
+        assertSame(before, database.getPersonDictionary());
+        assertEquals(0, database.getPersonDictionary().size());
+
+        // the CSV fallback then gives every person the id a clean load does
+        database.load(csv.toString());
+        assertEquals(clean.getPersonDictionary().size(), database.getPersonDictionary().size());
+        for (String name : List.of("Al Pacino", "Val Kilmer", "Robert De Niro")) {
+            assertEquals(clean.getPersonDictionary().idOf(name), database.getPersonDictionary().idOf(name));
+        }
+    }
+}
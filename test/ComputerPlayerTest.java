@@ -0,0 +1,65 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ComputerPlayerTest {
+
+    private static Database database;
+
+    @BeforeClass
+    public static void loadDatabase() {
+        database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+    }
+
+    /**
+     * A game on Tangled, scoring Family movies, with the first player to move.
+     */
+    private static MovieGameModel newGame() {
+        MovieGameModel model = new MovieGameModel(database.getMovieByName("Tangled (2010)"),
+                database.getMovieNameSet());
+        model.selectNextGenre(6, model.getGenreList().length);
+        model.startNewGame();
+        return model;
+    }
+
+    @Test
+    public void testChoosesALegalMove() {
+        MovieGameModel model = newGame();
+        Movie move = new ComputerPlayer("Computer", 300, 2).chooseMove(database, model);
+        assertNotNull(move);
+        List<HintEngine.Hint> legal = new HintEngine(database).hints(model.getLastFiveMovies().peekLast(),
+                model.getPlayedMovies(), model.getCurrentPlayer(), model.getSelectedGenre(), Integer.MAX_VALUE);
+        assertTrue(legal.stream().anyMatch(hint -> hint.getMovie() == move));
+        assertTrue(model.validateGuess(move));
+    }
+
+    @Test
+    public void testTakesAnImmediateWin() {
+        MovieGameModel model = newGame();
+        model.getCurrentPlayer().setScore(MovieGameModel.WINNING_SCORE - 1);
+        Movie move = new ComputerPlayer("Computer", 300, 2).chooseMove(database, model);
+        assertTrue(move.getGenres().contains("Family"));
+    }
+
+    @Test
+    public void testNoMoveWithoutConnections() {
+        Movie stranger = new Movie("Stranger", 2000, Set.of(), Set.of(), Set.of("Nobody"),
+                Set.of(), Set.of(), Set.of());
+        MovieGameModel model = new MovieGameModel(stranger, database.getMovieNameSet());
+        assertNull(new ComputerPlayer("Computer", 300, 2).chooseMove(database, model));
+    }
+
+    @Test
+    public void testAsyncSearchReturnsALegalMove() {
+        MovieGameModel model = newGame();
+        Movie head = model.getLastFiveMovies().peekLast();
+        Movie move = new ComputerPlayer(500).chooseMoveAsync(database, model).join();
+        assertNotNull(move);
+        int[] neighbours = database.getConnectionGraph().neighbours(database.getMovieId(head));
+        assertTrue(Arrays.binarySearch(neighbours, database.getMovieId(move)) >= 0);
+    }
+}
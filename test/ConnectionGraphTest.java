@@ -0,0 +1,60 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ConnectionGraphTest {
+
+    private static Database database;
+
+    @BeforeClass
+    public static void loadDatabase() {
+        database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+    }
+
+    @Test
+    public void testEdgesMatchSharedPeople() {
+        ConnectionGraph graph = database.getConnectionGraph();
+        assertEquals(database.getMovieCount(), graph.movieCount());
+        // every 37th movie against every movie keeps the check quick
+        for (int a = 0; a < graph.movieCount(); a += 37) {
+            Set<String> people = database.getMovie(a).getAllPeople();
+            int degree = 0;
+            for (int b = 0; b < graph.movieCount(); b++) {
+                Set<String> shared = new HashSet<>(people);
+                shared.retainAll(database.getMovie(b).getAllPeople());
+                int expected = a == b ? 0 : shared.size();
+                assertEquals(expected, graph.sharedPeople(a, b));
+                assertEquals(expected > 0, graph.connected(a, b));
+                assertEquals(graph.sharedPeople(a, b), graph.sharedPeople(b, a));
+                if (expected > 0) {
+                    degree++;
+                }
+            }
+            assertEquals(degree, graph.degree(a));
+            assertEquals(degree, graph.neighbours(a).length);
+        }
+    }
+
+    @Test
+    public void testNeighboursAreSorted() {
+        ConnectionGraph graph = database.getConnectionGraph();
+        for (int m = 0; m < graph.movieCount(); m++) {
+            int[] neighbours = graph.neighbours(m);
+            for (int i = 1; i < neighbours.length; i++) {
+                assertTrue(neighbours[i - 1] < neighbours[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        ConnectionGraph graph = new Database().getConnectionGraph();
+        assertEquals(0, graph.movieCount());
+        assertEquals(0, graph.edgeCount());
+    }
+}
@@ -1,5 +1,11 @@
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,4 +55,233 @@ public class DatabaseTest {
         Set<String> movie = database.getMovieNameSet();
         assertNotNull(movie);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testChunkedLoadMatchesSingleChunk() {
+        Database whole = new Database();
+        whole.loadFromCSV("cleaned_imdb_final.csv", Integer.MAX_VALUE - 8);
+        Database chunked = new Database();
+        chunked.loadFromCSV("cleaned_imdb_final.csv", 4096);
+
+        assertEquals(whole.getMovieNameSet(), chunked.getMovieNameSet());
+        for (String title : whole.getMovieNameSet()) {
+            Movie expected = whole.getMovieByName(title);
+            Movie actual = chunked.getMovieByName(title);
+            assertEquals(expected.getGenres(), actual.getGenres());
+            assertEquals(expected.getActors(), actual.getActors());
+            assertEquals(expected.getDirectors(), actual.getDirectors());
+            assertEquals(whole.getPeopleByTitle(title), chunked.getPeopleByTitle(title));
+        }
+    }
+
+    @Test
+    public void testRepeatedTitleKeepsLastRow(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("movies.csv");
+        Files.write(csv, List.of(
+                "Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15",
+                "",
+                "Heat,\"actor: Robert De Niro\",\"{'genres: Crime'}\",1995-12-15",
+                "Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",1998-09-25"));
+
+        Database database = new Database();
+        database.loadFromCSV(csv.toString(), 16);
+
+        assertEquals(2, database.getMovieNameSet().size());
+        assertEquals(Set.of("Robert De Niro"), database.getMovieByName("Heat (1995)").getActors());
+        assertEquals(Set.of("Action"), database.getMovieByName("Ronin (1998)").getGenres());
+    }
+
+    @Test
+    public void testPersonIndexMatchesCredits() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+
+        int menken = database.getPersonDictionary().idOf("Alan Menken");
+        int[] movieIds = database.moviesWithPerson(menken);
+        Movie tangled = database.getMovieByName("Tangled (2010)");
+        assertTrue(java.util.Arrays.binarySearch(movieIds, database.getMovieId(tangled)) >= 0);
+
+        int expected = 0;
+        for (int id = 0; id < database.getMovieCount(); id++) {
+            assertEquals(id, database.getMovieId(database.getMovie(id)));
+            if (database.getMovie(id).getAllPeople().contains("Alan Menken")) {
+                expected++;
+            }
+        }
+        assertEquals(expected, movieIds.length);
+        assertEquals(0, database.moviesWithPerson(-1).length);
+    }
+
+    @Test
+    public void testDatabasesSharingAMovieKeepTheirOwnIds() {
+        PersonDictionary people = new PersonDictionary();
+        Movie heat = new Movie("Heat (1995)", 1995, Set.of("Crime"), people, Set.of("Michael Mann"),
+                Set.of("Al Pacino"), Set.of(), Set.of(), Set.of());
+        Movie ronin = new Movie("Ronin (1998)", 1998, Set.of("Action"), people, Set.of("John Frankenheimer"),
+                Set.of("Robert De Niro"), Set.of(), Set.of(), Set.of());
+        Movie alien = new Movie("Alien (1979)", 1979, Set.of("Horror"), people, Set.of("Ridley Scott"),
+                Set.of("Sigourney Weaver"), Set.of(), Set.of(), Set.of());
+
+        Database first = new Database(people);
+        first.addMovie(heat);
+        first.addMovie(ronin);
+        first.buildIndexes();
+        Database second = new Database(people);
+        second.addMovie(alien);
+        second.addMovie(heat);
+        second.buildIndexes();
+
+        // indexing the second database must not move the movie in the first
+        assertEquals(0, first.getMovieId(heat));
+        assertEquals(1, second.getMovieId(heat));
+        assertEquals(-1, first.getMovieId(alien));
+        assertEquals(-1, second.getMovieId(ronin));
+        assertEquals(-1, first.getMovieId(null));
+        assertSame(heat, first.getMovie(first.getMovieId(heat)));
+    }
+
+    @Test
+    public void testEachDatabaseHasItsOwnPersonDictionary(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("movies.csv");
+        Files.write(csv, List.of("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15"));
+        Database first = new Database();
+        first.loadFromCSV(csv.toString());
+        Files.write(csv, List.of("Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",1998-09-25"));
+        Database second = new Database();
+        second.loadFromCSV(csv.toString());
+
+        // a reload starts from an empty dictionary instead of growing the last one
+        assertNotSame(first.getPersonDictionary(), second.getPersonDictionary());
+        assertEquals(1, second.getPersonDictionary().size());
+        assertEquals(-1, second.getPersonDictionary().idOf("Al Pacino"));
+        assertEquals(1, second.getPersonIndex().personCount());
+
+        // a movie from another database is matched by name, and cannot be added
+        Movie heat = first.getMovieByName("Heat (1995)");
+        assertEquals(0, second.moviesSharingAnyPersonWith(heat).length);
+        assertThrows(IllegalArgumentException.class, () -> second.addMovie(heat));
+    }
+
+    @Test
+    public void testMoviesSharingAnyPerson() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        Movie tangled = database.getMovieByName("Tangled (2010)");
+
+        Set<String> people = tangled.getAllPeople();
+        java.util.List<Integer> expected = new java.util.ArrayList<>();
+        for (int id = 0; id < database.getMovieCount(); id++) {
+            Movie other = database.getMovie(id);
+            if (other != tangled && !java.util.Collections.disjoint(people, other.getAllPeople())) {
+                expected.add(id);
+            }
+        }
+        int[] actual = database.moviesSharingAnyPersonWith(tangled);
+        assertEquals(expected.size(), actual.length);
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals((int) expected.get(i), actual[i]);
+        }
+    }
+
+    @Test
+    public void testGetMovieByNameResolvesCaseAndBaseTitle(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("movies.csv");
+        Files.write(csv, List.of(
+                "Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15",
+                "Heat,\"actor: Don Johnson\",\"{'genres: Crime'}\",1986-03-14",
+                "Heat (Director's Cut),\"actor: Al Pacino\",\"{'genres: Crime'}\",2017-01-01"));
+        Database database = new Database();
+        database.loadFromCSV(csv.toString());
+
+        assertEquals("Heat (1995)", database.getMovieByName("HEAT (1995)").getTitle());
+        assertEquals("Heat (1986)", database.getMovieByName("heat").getTitle());
+        assertEquals("Heat (Director's Cut) (2017)", database.getMovieByName("heat (director's cut)").getTitle());
+        assertEquals(List.of("Heat (1986)", "Heat (1995)", "Heat (Director's Cut) (2017)"),
+                database.getMoviesByBaseTitle("Heat").stream().map(Movie::getTitle).collect(java.util.stream.Collectors.toList()));
+        assertNull(database.getMovieByName("heat (2000)"));
+    }
+
+    @Test
+    public void testConstrainedRandomMovies() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        java.util.Random rng = new java.util.Random(7);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(database.getRandomMovieByGenre("Horror", rng).getGenres().contains("Horror"));
+
+            int year = database.getRandomMovieByYear(1990, 1999, rng).getReleaseDate();
+            assertTrue(year >= 1990 && year <= 1999);
+
+            Movie connected = database.getRandomMovieWithNeighbours(50, rng);
+            assertTrue(database.moviesSharingAnyPersonWith(connected).length >= 50);
+        }
+        assertNull(database.getRandomMovieByGenre("No Such Genre", rng));
+        assertNull(database.getRandomMovieByYear(1700, 1710, rng));
+        assertNull(database.getRandomMovieWithNeighbours(Integer.MAX_VALUE, rng));
+    }
+
+    @Test
+    public void testSeededRandomMovieIsRepeatable() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        java.util.Random first = new java.util.Random(42);
+        java.util.Random second = new java.util.Random(42);
+        for (int i = 0; i < 20; i++) {
+            assertSame(database.getRandomMovie(first), database.getRandomMovie(second));
+        }
+        assertNull(new Database().getRandomMovie());
+    }
+
+    @Test
+    public void testLoadAsyncCompletesWithLoadedDatabase(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("movies.csv");
+        Files.write(csv, List.of("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15"));
+        Database database = new Database();
+        assertEquals(Database.LoadStage.NOT_STARTED, database.getLoadStage());
+
+        assertSame(database, database.loadAsync(csv.toString()).get(30, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(Database.LoadStage.READY, database.getLoadStage());
+        assertEquals(Set.of("Heat (1995)"), database.getMovieNameSet());
+    }
+
+    @Test
+    public void testLoadStatsCountRows(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("movies.csv");
+        Files.write(csv, List.of(
+                "Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15",
+                "Heat,\"actor: Val Kilmer\",\"{'genres: Crime'}\",1995-12-15",
+                "Iguana,\"actor: Everett McGill\",set(),",
+                "Broken row without columns",
+                "Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",199x-09-25"));
+        Database database = new Database();
+        database.loadFromCSV(csv.toString());
+
+        LoadStats stats = database.getLoadStats();
+        assertEquals(LoadStats.Source.CSV, stats.getSource());
+        assertEquals(4, stats.getRows());
+        assertEquals(1, stats.getMalformedRows());
+        assertEquals(1, stats.getDuplicateTitles());
+        assertEquals(2, stats.getYearlessRows());
+        assertEquals(3, stats.getMovies());
+        assertEquals(Files.size(csv), stats.getBytes());
+        assertNull(stats.getError());
+        assertTrue(stats.getTotalNanos() > 0);
+        assertTrue(stats.getRowsPerSecond() > 0);
+
+        MetricsRegistry registry = new MetricsRegistry();
+        stats.publish(registry);
+        assertEquals(1, registry.get("load.malformed_rows"));
+        assertEquals(3, registry.get("load.movies"));
+        assertEquals(1, registry.get("load.count"));
+        assertTrue(MetricsRegistry.global().getLoads().contains(stats));
+    }
+
+    @Test
+    public void testLoadStatsReportMissingFile(@TempDir Path dir) {
+        Database database = new Database();
+        database.loadFromCSV(dir.resolve("missing.csv").toString());
+        assertNotNull(database.getLoadStats().getError());
+        assertEquals(0, database.getLoadStats().getMovies());
+    }
+}
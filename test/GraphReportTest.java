@@ -0,0 +1,117 @@
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GraphReportTest {
+
+    private static Database database;
+    private static GraphReport report;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void buildReport() {
+        database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        report = GraphReport.build(database, 5);
+    }
+
+    @Test
+    public void testComponentsMatchTheGraph() {
+        ConnectionGraph graph = database.getConnectionGraph();
+        int[] component = new int[database.getMovieCount()];
+        Arrays.fill(component, -1);
+        int components = 0;
+        for (int start = 0; start < component.length; start++) {
+            if (component[start] >= 0) {
+                continue;
+            }
+            ArrayDeque<Integer> queue = new ArrayDeque<>(List.of(start));
+            component[start] = components;
+            while (!queue.isEmpty()) {
+                for (int next : graph.neighbours(queue.poll())) {
+                    if (component[next] < 0) {
+                        component[next] = components;
+                        queue.add(next);
+                    }
+                }
+            }
+            components++;
+        }
+        assertEquals(components, report.getComponentCount());
+        for (int m = 0; m < component.length; m++) {
+            // both number components in order of their lowest movie id
+            assertEquals(component[m], report.getComponent(m));
+        }
+        assertEquals(database.getMovieCount(), Arrays.stream(report.getComponentSizes()).sum());
+        assertEquals(report.getLargestComponentSize(), report.getComponentSizes()[0]);
+    }
+
+    @Test
+    public void testDegreesHubsAndIsolatedMovies() {
+        ConnectionGraph graph = database.getConnectionGraph();
+        assertEquals(database.getMovieCount(), Arrays.stream(report.getDegreeHistogram()).sum());
+        assertEquals(report.getDegreeHistogram()[0], report.getIsolatedMovies().size());
+        for (Movie movie : report.getIsolatedMovies()) {
+            assertEquals(0, graph.degree(database.getMovieId(movie)));
+        }
+
+        assertEquals(5, report.getHubMovies().size());
+        int maxDegree = 0;
+        for (int m = 0; m < database.getMovieCount(); m++) {
+            maxDegree = Math.max(maxDegree, graph.degree(m));
+        }
+        assertEquals(maxDegree, (int) report.getHubMovies().get(0).getValue());
+        for (int i = 1; i < 5; i++) {
+            assertTrue(report.getHubMovies().get(i - 1).getValue() >= report.getHubMovies().get(i).getValue());
+            assertTrue(report.getHubPeople().get(i - 1).getValue() >= report.getHubPeople().get(i).getValue());
+        }
+        Map.Entry<String, Integer> topPerson = report.getHubPeople().get(0);
+        int id = database.getPersonDictionary().idOf(topPerson.getKey());
+        assertEquals(database.moviesWithPerson(id).length, (int) topPerson.getValue());
+    }
+
+    @Test
+    public void testWritesTheReport() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("report.txt");
+        report.write(file);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(report.toString(), lines.get(0));
+        assertTrue(lines.contains("isolated movies:"));
+    }
+
+    @Test
+    public void testScalesToAHundredTimesTheCatalog() {
+        // synthetic catalog: 100x the movies, ten credits each from a pool of people
+        int movieCount = 100 * database.getMovieCount();
+        Random rng = new Random(19);
+        PersonDictionary people = new PersonDictionary();
+        int[] pool = new int[movieCount];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = people.intern("synthetic person " + i);
+        }
+        Database synthetic = new Database(people);
+        for (int m = 0; m < movieCount; m++) {
+            int[][] credits = new int[Movie.ROLE_NAMES.length][0];
+            int[] actors = new int[10];
+            for (int i = 0; i < actors.length; i++) {
+                actors[i] = pool[rng.nextInt(pool.length)];
+            }
+            credits[Movie.ACTOR] = PersonDictionary.sortedDistinct(actors, actors.length);
+            synthetic.addMovie(new Movie("synthetic " + m, 2000, Set.of("Drama"), credits, people));
+        }
+        synthetic.buildIndexes();
+
+        GraphReport big = GraphReport.build(synthetic, 10);
+        assertEquals(movieCount, big.getMovieCount());
+        assertEquals(movieCount, Arrays.stream(big.getComponentSizes()).sum());
+    }
+}
@@ -0,0 +1,92 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HintEngineTest {
+
+    private static Database database;
+    private static HintEngine engine;
+
+    @BeforeClass
+    public static void loadDatabase() {
+        database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        engine = new HintEngine(database);
+    }
+
+    /**
+     * Usable connections worked out the way validateGuess does, from names.
+     */
+    private static int usableConnections(Movie head, Movie candidate, Player player) {
+        Set<String> shared = new HashSet<>(head.getAllPeople());
+        shared.retainAll(candidate.getAllPeople());
+        shared.removeIf(person -> player.getConnectionOfPerson(person) >= MovieGameModel.PERSON_LIMIT);
+        return shared.size();
+    }
+
+    @Test
+    public void testHintsAreExactlyTheLegalMoves() {
+        Movie head = database.getMovieByName("Tangled (2010)");
+        Player player = new Player();
+        // use up one of the head's people and put one neighbour in the played set
+        String usedUp = head.getDirectors().iterator().next();
+        player.updateConnections(Set.of(usedUp));
+        player.updateConnections(Set.of(usedUp));
+        player.updateConnections(Set.of(usedUp));
+        Set<Movie> played = new HashSet<>();
+        played.add(head);
+        played.add(database.getMovie(database.getConnectionGraph().neighbours(database.getMovieId(head))[0]));
+
+        Map<Movie, Integer> expected = new HashMap<>();
+        for (int id = 0; id < database.getMovieCount(); id++) {
+            Movie candidate = database.getMovie(id);
+            int usable = usableConnections(head, candidate, player);
+            if (!played.contains(candidate) && usable > 0) {
+                expected.put(candidate, usable);
+            }
+        }
+
+        List<HintEngine.Hint> hints = engine.hints(head, played, player, "Comedy", Integer.MAX_VALUE);
+        assertEquals(expected.size(), hints.size());
+        for (HintEngine.Hint hint : hints) {
+            assertEquals((int) expected.get(hint.getMovie()), hint.getUsableConnections());
+            assertEquals(hint.getMovie().getGenres().contains("Comedy"), hint.scoresGenre());
+        }
+        for (int i = 1; i < hints.size(); i++) {
+            HintEngine.Hint previous = hints.get(i - 1);
+            HintEngine.Hint next = hints.get(i);
+            assertTrue(previous.scoresGenre() || !next.scoresGenre());
+            if (previous.scoresGenre() == next.scoresGenre()) {
+                assertTrue(previous.getUsableConnections() >= next.getUsableConnections());
+            }
+        }
+    }
+
+    @Test
+    public void testLimitAndUnknownHead() {
+        Movie head = database.getMovieByName("Tangled (2010)");
+        assertEquals(3, engine.hints(head, Set.of(), new Player(), "Family", 3).size());
+        Movie stranger = new Movie("Stranger", 2000, Set.of(), Set.of(), Set.of("Nobody"),
+                Set.of(), Set.of(), Set.of());
+        assertTrue(engine.hints(stranger, Set.of(), new Player(), "Family", 3).isEmpty());
+    }
+
+    @Test
+    public void testEveryHeadOnTheFullCatalog() {
+        // with nothing played and nobody used up, every neighbour of the head is a legal move
+        ConnectionGraph graph = database.getConnectionGraph();
+        Player player = new Player();
+        Set<Movie> played = new HashSet<>();
+        for (int id = 0; id < database.getMovieCount(); id++) {
+            List<HintEngine.Hint> hints = engine.hints(database.getMovie(id), played, player, "Drama", 5);
+            assertEquals(Math.min(5, graph.degree(id)), hints.size());
+            int[] neighbours = graph.neighbours(id);
+            for (HintEngine.Hint hint : hints) {
+                assertTrue(Arrays.binarySearch(neighbours, database.getMovieId(hint.getMovie())) >= 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MovieCatalogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writeCsv(String... lines) throws IOException {
+        Path csv = folder.getRoot().toPath().resolve("movies.csv");
+        Files.write(csv, List.of(lines));
+        return csv;
+    }
+
+    @Test
+    public void testReloadSwapsWithoutTouchingRunningGames() throws Exception {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        MovieCatalog catalog = new MovieCatalog();
+        Database first = catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS);
+        assertSame(first, catalog.current());
+
+        writeCsv("Heat,\"actor: Val Kilmer\",\"{'genres: Crime'}\",1995-12-15",
+                "Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",1998-09-25");
+        Database second = catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS);
+        assertNotSame(first, second);
+        assertSame(second, catalog.current());
+
+        // a game pinned to the first database still sees the old catalog
+        assertEquals(Set.of("Heat (1995)"), first.getMovieNameSet());
+        assertEquals(Set.of("Al Pacino"), first.getMovieByName("Heat (1995)").getActors());
+        assertEquals(Set.of("Val Kilmer"), second.getMovieByName("Heat (1995)").getActors());
+        assertEquals(2, second.getMovieCount());
+    }
+
+    @Test
+    public void testEmptyReloadKeepsCurrentDatabase() throws Exception {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        MovieCatalog catalog = new MovieCatalog();
+        Database first = catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS);
+
+        writeCsv();
+        assertSame(first, catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS));
+        assertSame(first, catalog.current());
+    }
+
+    @Test
+    public void testReloadIfModified() throws Exception {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        MovieCatalog catalog = new MovieCatalog();
+        assertFalse(catalog.reloadIfModified());
+        Database first = catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS);
+        assertFalse(catalog.reloadIfModified());
+
+        writeCsv("Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",1998-09-25");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 5000));
+        assertTrue(catalog.reloadIfModified());
+        Database second = catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS);
+        assertNotSame(first, second);
+        assertEquals(Set.of("Ronin (1998)"), catalog.current().getMovieNameSet());
+    }
+
+    @Test
+    public void testWatchReloadsEditedCsv() throws Exception {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        MovieCatalog catalog = new MovieCatalog();
+        assertFalse(catalog.isWatching());
+        Database first = catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS);
+        catalog.watch(20, TimeUnit.MILLISECONDS);
+        assertTrue(catalog.isWatching());
+
+        writeCsv("Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",1998-09-25");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 5000));
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (catalog.current() == first && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(Set.of("Ronin (1998)"), catalog.current().getMovieNameSet());
+    }
+
+    @Test
+    public void testReloadRunsOnTheCatalogsOwnLowPriorityThreads() throws Exception {
+        Path csv = writeCsv("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15");
+        Set<Thread> before = Thread.getAllStackTraces().keySet();
+        Database loaded = new MovieCatalog().reload(csv.toString()).get(30, TimeUnit.SECONDS);
+        assertEquals(Set.of("Heat (1995)"), loaded.getMovieNameSet());
+
+        List<Thread> loaders = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!before.contains(thread) && thread.getName().equals("catalog-loader")) {
+                loaders.add(thread);
+            }
+        }
+        assertFalse(loaders.isEmpty());
+        for (Thread thread : loaders) {
+            assertTrue(thread.isDaemon());
+            assertEquals(Thread.MIN_PRIORITY, thread.getPriority());
+        }
+    }
+}
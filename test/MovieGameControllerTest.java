@@ -3,16 +3,25 @@ import static org.mockito.Mockito.*;
 
 import com.googlecode.lanterna.input.KeyStroke;
 import com.googlecode.lanterna.input.KeyType;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(MockitoJUnitRunner.class)
 public class MovieGameControllerTest {
@@ -29,6 +38,12 @@ public class MovieGameControllerTest {
     @Mock
     private ScheduledExecutorService schedulerMock;
 
+    @Mock
+    private MovieCatalog catalogMock;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @InjectMocks
     private MovieGameController controller;
 
@@ -91,6 +106,22 @@ public class MovieGameControllerTest {
         verify(viewMock).setCursorPosition(0);
     }
 
+    @Test
+    public void testDeadEndEndsTheGameAfterTheRound() throws IOException {
+        controller.currentInput = new StringBuilder("Tangled");
+        when(modelMock.getSuggestions()).thenReturn(Collections.singletonList("Tangled"));
+        when(modelMock.getSuggestionIndex()).thenReturn(0);
+        when(databaseMock.getMovieByName("Tangled")).thenReturn(testMovie);
+        when(modelMock.validateGuess(testMovie)).thenReturn(true);
+        when(modelMock.isStalemate()).thenReturn(true);
+        controller.handleEnter();
+
+        // player 2 is stuck, so player 1 wins, and only after the round has moved on
+        InOrder order = inOrder(modelMock);
+        order.verify(modelMock).updateToNextRound();
+        order.verify(modelMock).notifyObservers("GAME_OVER_1");
+    }
+
     @Test
     public void testHandleEnter2() throws IOException {
         controller.currentInput = new StringBuilder("Invalid");
@@ -188,6 +219,7 @@ public class MovieGameControllerTest {
     public void testRestartGame() throws IOException {
         controller.currentInput = new StringBuilder("test");
         controller.timerRunning = false;
+        when(catalogMock.current()).thenReturn(databaseMock);
         when(databaseMock.getRandomMovie()).thenReturn(testMovie);
         controller.restartGame();
 
@@ -200,6 +232,7 @@ public class MovieGameControllerTest {
     @Test
     public void testGameOver() throws IOException {
         controller.timerRunning = true;
+        when(catalogMock.current()).thenReturn(databaseMock);
         when(viewMock.screenPollInput())
                 .thenReturn(new KeyStroke('r', false, false))  // First try (lowercase)
                 .thenReturn(new KeyStroke('R', false, false)); // Second try (uppercase)
@@ -212,6 +245,7 @@ public class MovieGameControllerTest {
     public void testGameOver2() throws IOException {
         when(viewMock.screenPollInput())
                 .thenReturn(new KeyStroke('R', false, false));
+        when(catalogMock.current()).thenReturn(databaseMock);
         when(databaseMock.getRandomMovie()).thenReturn(testMovie);
         controller.gameOver();
 
@@ -228,4 +262,82 @@ public class MovieGameControllerTest {
         assertTrue(controller.shouldExit);
         verify(viewMock).showExitScreen();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReloadAfterGameOverReachesTheNextGame() throws Exception {
+        Path csv = folder.getRoot().toPath().resolve("movies.csv");
+        Files.write(csv, List.of("Heat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15"));
+        MovieCatalog catalog = new MovieCatalog();
+        controller.catalog = catalog;
+        Database first = catalog.reload(csv.toString()).get(30, TimeUnit.SECONDS);
+        catalog.watch(50, TimeUnit.MILLISECONDS);
+        when(viewMock.screenPollInput()).thenReturn(new KeyStroke('R', false, false));
+
+        controller.gameOver();
+        verify(schedulerMock).shutdown();
+        verify(modelMock).resetModel(first.getMovieByName("Heat (1995)"));
+
+        // the game timer is gone, but the catalog still notices the edit
+        Files.write(csv, List.of("Ronin,\"actor: Robert De Niro\",\"{'genres: Action'}\",1998-09-25"));
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 5000));
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (catalog.current() == first && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Database second = catalog.current();
+        assertNotSame(first, second);
+        assertTrue(catalog.isWatching());
+
+        controller.gameOver();
+        verify(modelMock).setTitleIndex(second.getTitleIndex());
+        verify(modelMock).resetModel(second.getMovieByName("Ronin (1998)"));
+    }
+
+    @Test
+    public void testPowerUpsAreIgnoredDuringTheComputersTurn() throws IOException {
+        controller.computerPlayer = mock(ComputerPlayer.class);
+        when(modelMock.isPlayer1Turn()).thenReturn(false);
+
+        controller.handleCharacter('[');
+        controller.handleCharacter(']');
+
+        verify(modelMock, never()).updateTimeBoosts();
+        verify(modelMock, never()).setPlayer2TimeSabotages(anyInt());
+        verify(modelMock, never()).setNextPlayerSabotaged(anyBoolean());
+        verify(viewMock, never()).displayPowerUp(anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testComputerMoveIsPlayedByTheInputLoop() throws IOException {
+        ComputerPlayer computer = mock(ComputerPlayer.class);
+        controller.computerPlayer = computer;
+        when(computer.chooseMoveAsync(databaseMock, modelMock))
+                .thenReturn(CompletableFuture.completedFuture(testMovie));
+        when(modelMock.getRoundNumber()).thenReturn(3);
+        when(modelMock.isGameStarted()).thenReturn(true);
+        when(modelMock.validateGuess(testMovie)).thenReturn(true);
+
+        controller.playComputerTurn();
+        // the search thread only queues the move
+        verify(modelMock, never()).validateGuess(any());
+
+        controller.playComputerMoves();
+        InOrder inOrder = inOrder(modelMock, viewMock);
+        inOrder.verify(modelMock).validateGuess(testMovie);
+        inOrder.verify(modelMock).updateToNextRound();
+        inOrder.verify(viewMock).updateScreen(any());
+        assertTrue(controller.computerMoves.isEmpty());
+    }
+
+    @Test
+    public void testComputerMoveForAnEarlierRoundIsDropped() throws IOException {
+        controller.computerMoves.add(new MovieGameController.ComputerMove(2, testMovie));
+        when(modelMock.getRoundNumber()).thenReturn(3);
+
+        controller.playComputerMoves();
+
+        verify(modelMock, never()).validateGuess(any());
+        verify(viewMock, never()).updateScreen(any());
+        assertTrue(controller.computerMoves.isEmpty());
+    }
+}
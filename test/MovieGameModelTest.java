@@ -317,4 +317,138 @@ public class MovieGameModelTest {
         assertEquals(30, model.getSecondsRemaining());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testCatalogCanArriveAfterConstruction() {
+        MovieGameModel pending = new MovieGameModel();
+        assertFalse(pending.hasStartingMovie());
+        pending.incrementPlayerNames('a');
+        assertEquals("a", pending.getPlayer1Name());
+
+        pending.setMovieNames(suggestions);
+        pending.setStartingMovie(titanic);
+        assertTrue(pending.hasStartingMovie());
+        assertSame(titanic, pending.getLastFiveMovies().peekFirst());
+        assertEquals(model.dictionary.getTitles().titles(), pending.dictionary.getTitles().titles());
+    }
+
+    @Test
+    public void testHintsNeedAnEngine() {
+        assertTrue(model.getHints(3).isEmpty());
+        assertFalse(model.isShowingHints());
+        model.toggleHints();
+        assertTrue(model.isShowingHints());
+    }
+
+    @Test
+    public void testDeadEndIsRecorded() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        ConnectionGraph graph = database.getConnectionGraph();
+        // a movie whose only neighbour is the one it was reached from
+        int leaf = 0;
+        while (graph.degree(leaf) != 1) {
+            leaf++;
+        }
+        Movie head = database.getMovie(graph.neighbours(leaf)[0]);
+        Movie guess = database.getMovie(leaf);
+
+        MovieGameModel game = new MovieGameModel(head, database.getMovieNameSet());
+        game.setHintEngine(new HintEngine(database));
+        List<String> events = new ArrayList<>();
+        game.addObserver(events::add);
+        assertTrue(game.validateGuess(guess));
+        // the model only records the dead end; the controller ends the game once the round has moved on
+        assertTrue(game.isStalemate());
+        assertTrue(events.isEmpty());
+        game.updateToNextRound();
+        assertFalse(game.isPlayer1Turn());
+        game.resetModel(head);
+        assertFalse(game.isStalemate());
+
+        MovieGameModel open = new MovieGameModel(database.getMovieByName("Tangled (2010)"), database.getMovieNameSet());
+        open.setHintEngine(new HintEngine(database));
+        assertTrue(open.validateGuess(database.getMovie(graph.neighbours(database.getMovieId(open.getLastFiveMovies().peekLast()))[0])));
+        assertFalse(open.isStalemate());
+    }
+
+    @Test
+    public void testSuggestionsAreNotRankedByDefault() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        MovieGameModel game = new MovieGameModel(database.getMovieByName("Tangled (2010)"), database.getTitleIndex());
+        game.setHintEngine(database.getHintEngine());
+        assertFalse(game.isRankingSuggestions());
+
+        // a hint engine alone must not reorder suggestions, or every player would see the hints
+        for (String prefix : List.of("t", "th", "s", "b")) {
+            game.updateSuggestions(new StringBuilder(prefix));
+            assertEquals(prefix, game.dictionary.getTitles().complete(prefix, 5), game.getSuggestions());
+        }
+        game.resetModel(database.getMovieByName("Tangled (2010)"));
+        assertFalse(game.isRankingSuggestions());
+    }
+
+    @Test
+    public void testRankedSuggestionsListLegalMovesFirst() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        HintEngine engine = new HintEngine(database);
+        Movie head = database.getMovieByName("Tangled (2010)");
+        MovieGameModel game = new MovieGameModel(head, database.getMovieNameSet());
+        game.setHintEngine(engine);
+        game.setRankingSuggestions(true);
+        game.selectNextGenre(3, genreList.length);
+        String genre = game.getSelectedGenre();
+
+        for (String prefix : List.of("t", "th", "s", "b")) {
+            // the legal moves matching the prefix, by genre, then connections, then title
+            List<String> expected = engine.hints(head, Set.of(head), new Player(), genre, Integer.MAX_VALUE).stream()
+                    .map(HintEngine.Hint::getMovie)
+                    .filter(movie -> movie.getTitle().toLowerCase().startsWith(prefix))
+                    .sorted(Comparator.comparing((Movie movie) -> !movie.getGenres().contains(genre))
+                            .thenComparing(movie -> -engine.neighbourCount(movie))
+                            .thenComparing(movie -> movie.getTitle().toLowerCase()))
+                    .map(movie -> movie.getTitle().toLowerCase())
+                    .limit(5)
+                    .collect(java.util.stream.Collectors.toCollection(ArrayList::new));
+            for (String title : game.dictionary.getTitles().complete(prefix, 5)) {
+                if (expected.size() < 5 && !expected.contains(title)) {
+                    expected.add(title);
+                }
+            }
+            game.updateSuggestions(new StringBuilder(prefix));
+            assertEquals(prefix, expected, game.getSuggestions());
+        }
+
+        game.updateSuggestions(new StringBuilder("t"));
+        List<String> ranked = new ArrayList<>(game.getSuggestions());
+        game.setRankingSuggestions(false);
+        game.updateSuggestions(new StringBuilder("t"));
+        assertEquals(game.dictionary.getTitles().complete("t", 5), game.getSuggestions());
+        assertNotEquals(ranked, game.getSuggestions());
+    }
+
+    @Test
+    public void testGamesShareTheDatabaseTitleIndex() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        TitleIndex titles = database.getTitleIndex();
+        assertSame(titles, database.getTitleIndex());
+        assertNotNull(database.getHintEngine());
+        assertSame(database.getHintEngine(), database.getHintEngine());
+        assertEquals(new TitleTrie(database.getMovieNameSet()).titles(), titles.getTitles().titles());
+
+        Movie start = database.getMovieByName("Tangled (2010)");
+        MovieGameModel first = new MovieGameModel(start, titles);
+        MovieGameModel second = new MovieGameModel(start, titles);
+        assertSame(first.dictionary, second.dictionary);
+        first.updateSuggestions(new StringBuilder("tang"));
+        second.updateSuggestions(new StringBuilder("dark knight"));
+        assertTrue(first.getSuggestions().contains("tangled (2010)"));
+        assertTrue(second.getSuggestions().stream().allMatch(title -> title.contains("dark knight")));
+        assertFalse(second.getSuggestions().isEmpty());
+
+        assertSame(TitleIndex.EMPTY, new MovieGameModel().dictionary);
+    }
+}
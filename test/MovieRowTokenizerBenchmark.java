@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Compares the tokenizer's rows/sec and MB/sec with the loader's original
+ * helpers. It only reports: timings depend on the machine, so it is run by
+ * hand rather than as part of the unit tests.
+ */
+public class MovieRowTokenizerBenchmark {
+
+    /**
+     * Counts tokens without keeping them, for timing.
+     */
+    private static class CountingSink implements MovieRowTokenizer.Sink {
+        long tokens = 0;
+
+        @Override
+        public void title(String title) {
+            tokens++;
+        }
+
+        @Override
+        public void person(int role, String name) {
+            tokens++;
+        }
+
+        @Override
+        public void genre(String genre) {
+            tokens++;
+        }
+
+        @Override
+        public void endRow(int releaseYear) {
+            tokens++;
+        }
+
+        @Override
+        public void discardRow() {
+        }
+    }
+
+    /**
+     * @param args the CSV file, and optionally the number of timed passes
+     */
+    public static void main(String[] args) throws IOException {
+        String filePath = args.length > 0 ? args[0] : "cleaned_imdb_final.csv";
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        byte[] bytes = Files.readAllBytes(Paths.get(filePath));
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        String[] lines = text.split("\n");
+        char[] buf = text.toCharArray();
+        double megabytes = bytes.length / (1024.0 * 1024.0);
+
+        // warm up both paths before timing
+        long legacyChars = 0;
+        long tokens = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            legacyChars += legacyPass(lines);
+            tokens += tokenizerPass(buf);
+        }
+
+        long start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            legacyChars += legacyPass(lines);
+        }
+        double legacySeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            tokens += tokenizerPass(buf);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("legacy helpers: %.0f rows/sec, %.1f MB/sec%n",
+                lines.length * passes / legacySeconds, megabytes * passes / legacySeconds);
+        System.out.printf("tokenizer:      %.0f rows/sec, %.1f MB/sec%n",
+                lines.length * passes / seconds, megabytes * passes / seconds);
+        // printing the totals keeps the JIT from dropping either loop
+        System.out.printf("speedup: %.1fx (checksums %d, %d)%n", legacySeconds / seconds, legacyChars, tokens);
+    }
+
+    private static long legacyPass(String[] lines) {
+        long length = 0;
+        for (String line : lines) {
+            length += MovieRowTokenizerTest.legacyRow(line).length();
+        }
+        return length;
+    }
+
+    private static long tokenizerPass(char[] buf) {
+        CountingSink sink = new CountingSink();
+        new MovieRowTokenizer().tokenize(buf, 0, buf.length, sink);
+        return sink.tokens;
+    }
+}
@@ -0,0 +1,195 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MovieRowTokenizerTest {
+
+    /**
+     * Collects every token into one line of text per row so results can be compared.
+     */
+    private static class RecordingSink implements MovieRowTokenizer.Sink {
+        List<String> rows = new ArrayList<>();
+        int discarded = 0;
+        private String title;
+        private List<Set<String>> roles = newRoles();
+        private Set<String> genres = new TreeSet<>();
+
+        @Override
+        public void title(String title) {
+            this.title = title;
+        }
+
+        @Override
+        public void person(int role, String name) {
+            roles.get(role).add(name);
+        }
+
+        @Override
+        public void genre(String genre) {
+            genres.add(genre);
+        }
+
+        @Override
+        public void endRow(int releaseYear) {
+            rows.add(describe(title, releaseYear, roles, genres));
+            roles = newRoles();
+            genres = new TreeSet<>();
+        }
+
+        @Override
+        public void discardRow() {
+            discarded++;
+            roles = newRoles();
+            genres = new TreeSet<>();
+        }
+    }
+
+    private static List<Set<String>> newRoles() {
+        List<Set<String>> roles = new ArrayList<>();
+        for (int role = 0; role < Movie.ROLE_NAMES.length; role++) {
+            roles.add(new TreeSet<>());
+        }
+        return roles;
+    }
+
+    private static String describe(String title, int year, List<Set<String>> roles, Set<String> genres) {
+        return title + "|" + year + "|" + roles + "|" + genres;
+    }
+
+    private static List<String> tokenize(String text) {
+        RecordingSink sink = new RecordingSink();
+        char[] buf = text.toCharArray();
+        new MovieRowTokenizer().tokenize(buf, 0, buf.length, sink);
+        return sink.rows;
+    }
+
+    // The loader's original helpers, kept here as the reference the tokenizer is checked and benchmarked against.
+
+    static String legacyRow(String line) {
+        String[] columns = legacyParseCSVLine(line);
+        String title = columns[0].trim();
+        List<Set<String>> roles = newRoles();
+        for (String entry : legacyParsePeopleData(columns[1].trim())) {
+            if (entry.contains(":")) {
+                String[] jobName = entry.split(":", 2);
+                String job = jobName[0].trim().toLowerCase();
+                String name = jobName[1].trim();
+                name = name.replaceAll("^\"|\"$", "").trim();
+                int role = Arrays.asList(Movie.ROLE_NAMES).indexOf(job);
+                if (role >= 0) {
+                    roles.get(role).add(name);
+                }
+            }
+        }
+        Set<String> genres = new TreeSet<>(legacyParseGenres(columns[2].trim()));
+        String releaseDate = columns[3].trim();
+        int releaseYear = 0;
+        if (!releaseDate.isEmpty()) {
+            try {
+                releaseYear = Integer.parseInt(releaseDate.substring(0, 4));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                // No error
+            }
+        }
+        return describe(title, releaseYear, roles, genres);
+    }
+
+    private static String[] legacyParseCSVLine(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                tokens.add(sb.toString());
+                sb = new StringBuilder();
+            } else {
+                sb.append(c);
+            }
+        }
+        tokens.add(sb.toString());
+        return tokens.toArray(new String[0]);
+    }
+
+    private static List<String> legacyParsePeopleData(String peopleData) {
+        List<String> entries = new ArrayList<>();
+        if (peopleData.startsWith("\"") && peopleData.endsWith("\"")) {
+            peopleData = peopleData.substring(1, peopleData.length() - 1);
+        }
+        String[] parts = peopleData.split(", (?=actor:|director:|writer:|cinematographer:|composer:)");
+        for (String part : parts) {
+            if (part.contains(":")) {
+                entries.add(part.trim());
+            }
+        }
+        return entries;
+    }
+
+    private static Set<String> legacyParseGenres(String genreData) {
+        Set<String> genres = new HashSet<>();
+        genreData = genreData.replaceAll("^\"|\"$", "");
+        if (genreData.startsWith("{") && genreData.endsWith("}")) {
+            genreData = genreData.substring(1, genreData.length() - 1);
+        }
+        String[] genreParts = genreData.split("',\\s*'");
+        for (String part : genreParts) {
+            part = part.replace("'", "").trim();
+            if (part.startsWith("genres:")) {
+                String genre = part.substring("genres:".length()).trim();
+                genre = genre.replaceAll("^\"|\"$", "").trim();
+                genres.add(genre);
+            }
+        }
+        return genres;
+    }
+
+    @Test
+    public void testQuotedTitleAndCommaInName() {
+        List<String> rows = tokenize("\"Crouching Tiger, Hidden Dragon\","
+                + "\"director: Ang Lee, actor: Sammy Davis, Jr., composer: Tan Dun\","
+                + "\"{'genres: Action', 'genres: Drama'}\",2000-07-06\n");
+        assertEquals(1, rows.size());
+        List<Set<String>> roles = newRoles();
+        roles.get(Movie.DIRECTOR).add("Ang Lee");
+        roles.get(Movie.ACTOR).add("Sammy Davis, Jr.");
+        roles.get(Movie.COMPOSER).add("Tan Dun");
+        assertEquals(describe("Crouching Tiger, Hidden Dragon", 2000, roles, new TreeSet<>(Set.of("Action", "Drama"))),
+                rows.get(0));
+    }
+
+    @Test
+    public void testEmptyGenresAndDate() {
+        List<String> rows = tokenize("Iguana,\"actor: Someone\",set(),\r\n");
+        List<Set<String>> roles = newRoles();
+        roles.get(Movie.ACTOR).add("Someone");
+        assertEquals(List.of(describe("Iguana", 0, roles, new TreeSet<>())), rows);
+    }
+
+    @Test
+    public void testShortRowsAreDiscarded() {
+        RecordingSink sink = new RecordingSink();
+        char[] buf = "\n\nonly,two\nHeat,\"actor: Al Pacino\",\"{'genres: Crime'}\",1995-12-15".toCharArray();
+        int rows = new MovieRowTokenizer().tokenize(buf, 0, buf.length, sink);
+        assertEquals(1, rows);
+        assertEquals(1, sink.discarded);
+        assertTrue(sink.rows.get(0).startsWith("Heat|1995|"));
+    }
+
+    @Test
+    public void testMatchesLegacyHelpersOnDataset() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("cleaned_imdb_final.csv"), StandardCharsets.UTF_8);
+        List<String> expected = new ArrayList<>();
+        for (String line : lines) {
+            expected.add(legacyRow(line));
+        }
+        assertEquals(expected, tokenize(String.join("\n", lines)));
+    }
+}
@@ -66,4 +66,44 @@ public class MovieTest {
 
         assertEquals("Titanic, 1997, [Adventure, Drama, Family]", movie.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPersonIdsAreSharedAndSorted() {
+        Set<String> genres = new HashSet<>(Set.of("Drama"));
+        PersonDictionary dictionary = new PersonDictionary();
+        Movie titanic = new Movie("Titanic", 1997, genres, dictionary, Set.of("James Cameron"),
+                Set.of("Leo DiCaprio", "Kate Winslet"), Set.of("James Cameron"), Set.of(), Set.of());
+        Movie aliens = new Movie("Aliens", 1986, genres, dictionary, Set.of("James Cameron"),
+                Set.of("Sigourney Weaver"), Set.of(), Set.of(), Set.of("James Horner"));
+
+        int cameron = dictionary.idOf("James Cameron");
+        assertArrayEquals(new int[] {cameron}, titanic.getPersonIds(Movie.DIRECTOR));
+        assertArrayEquals(titanic.getPersonIds(Movie.DIRECTOR), aliens.getPersonIds(Movie.DIRECTOR));
+        assertSame(dictionary.nameOf(cameron), aliens.getDirectors().iterator().next());
+
+        int[] actors = titanic.getPersonIds(Movie.ACTOR);
+        assertEquals(2, actors.length);
+        assertTrue(actors[0] < actors[1]);
+        assertTrue(titanic.getActors().contains("Kate Winslet"));
+        assertFalse(titanic.getActors().contains("Sigourney Weaver"));
+        assertFalse(titanic.getActors().contains("Nobody Ever Interned"));
+    }
+
+    @Test
+    public void testAllPeopleIsSharedAndKnowsRoles() {
+        Movie titanic = new Movie("Titanic", 1997, Set.of("Drama"), Set.of("James Cameron"),
+                Set.of("Leo DiCaprio", "Kate Winslet"), Set.of("James Cameron"), Set.of(), Set.of("James Horner"));
+
+        assertSame(titanic.getAllPeople(), titanic.getAllPeople());
+        assertEquals(4, titanic.getAllPersonIds().length);
+        assertThrows(UnsupportedOperationException.class, () -> titanic.getAllPeople().add("Billy Zane"));
+
+        int cameron = titanic.getPersonDictionary().idOf("James Cameron");
+        assertEquals((1 << Movie.DIRECTOR) | (1 << Movie.WRITER), titanic.getRoleMask(cameron));
+        assertTrue(titanic.hasRole("James Cameron", Movie.WRITER));
+        assertFalse(titanic.hasRole("James Cameron", Movie.ACTOR));
+        assertTrue(titanic.hasRole("James Horner", Movie.COMPOSER));
+        assertFalse(titanic.hasRole("Nobody Ever Interned", Movie.ACTOR));
+        assertEquals(0, titanic.getRoleMask(-1));
+    }
+}
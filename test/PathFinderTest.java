@@ -0,0 +1,148 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PathFinderTest {
+
+    private static Database database;
+
+    @BeforeClass
+    public static void loadDatabase() {
+        database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+    }
+
+    /**
+     * Plain one-way breadth-first search, for comparison.
+     */
+    private static int distance(int from, int to) {
+        int[] dist = new int[database.getMovieCount()];
+        Arrays.fill(dist, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        dist[from] = 0;
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int v : database.getConnectionGraph().neighbours(u)) {
+                if (dist[v] < 0) {
+                    dist[v] = dist[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return dist[to];
+    }
+
+    private static void assertValidChain(PathFinder.Path path) {
+        List<Movie> movies = path.getMovies();
+        assertEquals(movies.size() - 1, path.length());
+        assertEquals(movies.size(), new HashSet<>(movies).size());
+        for (int i = 0; i < path.length(); i++) {
+            String link = path.getLinks().get(i);
+            assertTrue(movies.get(i).getAllPeople().contains(link));
+            assertTrue(movies.get(i + 1).getAllPeople().contains(link));
+        }
+    }
+
+    @Test
+    public void testShortestPathsMatchPlainSearch() {
+        PathFinder finder = new PathFinder(database);
+        Random rng = new Random(16);
+        for (int i = 0; i < 200; i++) {
+            Movie from = database.getMovie(rng.nextInt(database.getMovieCount()));
+            Movie to = database.getMovie(rng.nextInt(database.getMovieCount()));
+            int expected = distance(database.getMovieId(from), database.getMovieId(to));
+            PathFinder.Path path = finder.shortestPath(from, to, PathFinder.Filter.any());
+            if (expected < 0) {
+                assertNull(path);
+                continue;
+            }
+            assertEquals(expected, path.length());
+            assertSame(from, path.getMovies().get(0));
+            assertSame(to, path.getMovies().get(path.length()));
+            assertValidChain(path);
+        }
+    }
+
+    @Test
+    public void testAlternativePathsAreDistinctAndOrdered() {
+        PathFinder finder = new PathFinder(database);
+        Movie from = database.getMovieByName("Tangled (2010)");
+        Movie to = database.getMovieByName("Titanic (1997)");
+        List<PathFinder.Path> paths = finder.shortestPaths(from, to, PathFinder.Filter.any(), 10);
+        assertEquals(10, paths.size());
+        assertEquals(distance(database.getMovieId(from), database.getMovieId(to)), paths.get(0).length());
+        Set<List<Movie>> chains = new HashSet<>();
+        for (int i = 0; i < paths.size(); i++) {
+            assertValidChain(paths.get(i));
+            assertTrue(chains.add(paths.get(i).getMovies()));
+            if (i > 0) {
+                assertTrue(paths.get(i - 1).length() <= paths.get(i).length());
+            }
+        }
+    }
+
+    @Test
+    public void testFiltersLimitLinksAndMovies() {
+        PathFinder finder = new PathFinder(database);
+        Movie from = database.getMovieByName("Tangled (2010)");
+        Movie to = database.getMovieByName("Titanic (1997)");
+        int unfiltered = finder.shortestPath(from, to, PathFinder.Filter.any()).length();
+
+        PathFinder.Path actors = finder.shortestPath(from, to, PathFinder.Filter.any().withRoles(Movie.ACTOR));
+        assertNotNull(actors);
+        assertTrue(actors.length() >= unfiltered);
+        for (int i = 0; i < actors.length(); i++) {
+            String link = actors.getLinks().get(i);
+            assertTrue(actors.getMovies().get(i).hasRole(link, Movie.ACTOR));
+            assertTrue(actors.getMovies().get(i + 1).hasRole(link, Movie.ACTOR));
+        }
+
+        PathFinder.Path nineties = finder.shortestPath(from, to, PathFinder.Filter.any().withYears(1990, 1999));
+        assertNotNull(nineties);
+        List<Movie> between = nineties.getMovies().subList(1, nineties.length());
+        for (Movie movie : between) {
+            int year = movie.getReleaseDate();
+            assertTrue(year >= 1990 && year <= 1999);
+        }
+    }
+
+    @Test
+    public void testPathBetweenPeople() {
+        PathFinder finder = new PathFinder(database);
+        Movie tangled = database.getMovieByName("Tangled (2010)");
+        Movie titanic = database.getMovieByName("Titanic (1997)");
+        String from = tangled.getDirectors().iterator().next();
+        String to = titanic.getDirectors().iterator().next();
+        List<PathFinder.Path> paths = finder.shortestPaths(from, to, PathFinder.Filter.any(), 3);
+        assertFalse(paths.isEmpty());
+        for (PathFinder.Path path : paths) {
+            assertValidChain(path);
+            assertTrue(path.getMovies().get(0).getAllPeople().contains(from));
+            assertTrue(path.getMovies().get(path.length()).getAllPeople().contains(to));
+        }
+        assertTrue(finder.shortestPaths("Nobody At All", to, PathFinder.Filter.any(), 3).isEmpty());
+    }
+
+    @Test
+    public void testRandomQueriesGiveValidChains() {
+        PathFinder finder = new PathFinder(database);
+        Random rng = new Random(1);
+        int found = 0;
+        for (int i = 0; i < 2000; i++) {
+            Movie from = database.getMovie(rng.nextInt(database.getMovieCount()));
+            Movie to = database.getMovie(rng.nextInt(database.getMovieCount()));
+            PathFinder.Path path = finder.shortestPath(from, to, PathFinder.Filter.any());
+            if (path != null) {
+                found++;
+                assertValidChain(path);
+                assertSame(from, path.getMovies().get(0));
+                assertSame(to, path.getMovies().get(path.length()));
+            }
+        }
+        assertTrue(found > 0);
+    }
+}
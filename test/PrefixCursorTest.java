@@ -0,0 +1,83 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PrefixCursorTest {
+
+    private static TitleTrie titles;
+
+    @BeforeClass
+    public static void loadTitles() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        titles = new TitleTrie(database.getMovieNameSet());
+    }
+
+    @Test
+    public void testTypingAndBackspacingMatchFreshLookups() {
+        PrefixCursor cursor = new PrefixCursor(titles);
+        Random rng = new Random(21);
+        StringBuilder input = new StringBuilder();
+        for (int step = 0; step < 5000; step++) {
+            int action = rng.nextInt(10);
+            if (action < 2 && input.length() > 0) {
+                input.setLength(input.length() - 1);
+            } else if (action < 3) {
+                // edit in the middle, as when the cursor is moved back
+                input.insert(rng.nextInt(input.length() + 1), (char) ('a' + rng.nextInt(26)));
+            } else if (action < 4) {
+                input.setLength(0);
+            } else {
+                // mostly follow a real title so the range stays non-empty
+                String title = titles.title(rng.nextInt(titles.size()));
+                input.append(input.length() < title.length() ? Character.toUpperCase(title.charAt(input.length())) : 'x');
+            }
+            cursor.update(input);
+            assertEquals(input.toString(), titles.complete(input, 5), cursor.first(5));
+        }
+    }
+
+    @Test
+    public void testEachKeystrokeIsOneRangeUpdate() {
+        PrefixCursor cursor = new PrefixCursor(titles);
+        String title = "the lord of the rings: the return of the king (2003)";
+        StringBuilder input = new StringBuilder();
+        for (char c : title.toCharArray()) {
+            input.append(c);
+            cursor.update(input);
+            assertTrue(cursor.count() > 0);
+        }
+        assertEquals(List.of(title), cursor.first(5));
+        for (int i = 0; i < title.length(); i++) {
+            input.setLength(input.length() - 1);
+            cursor.update(input);
+        }
+        assertEquals(titles.size(), cursor.count());
+    }
+
+    @Test
+    public void testWalksCollapsedEdgesAndTitlesThatPrefixOthers() {
+        TitleTrie small = new TitleTrie(List.of("Up", "Up In The Air", "Upgrade", "Heat"));
+        PrefixCursor cursor = new PrefixCursor(small);
+        cursor.update("U");
+        assertEquals(List.of("up", "up in the air", "upgrade"), cursor.first(5));
+        cursor.update("up ");
+        assertEquals(List.of("up in the air"), cursor.first(5));
+        cursor.update("up in thx");
+        assertEquals(0, cursor.count());
+        cursor.update("up in thx air");
+        assertEquals(0, cursor.count());
+        cursor.update("up in th");
+        assertEquals(List.of("up in the air"), cursor.first(5));
+        cursor.update("");
+        assertEquals(4, cursor.count());
+
+        PrefixCursor empty = new PrefixCursor(new TitleTrie(List.of()));
+        empty.update("up");
+        assertEquals(0, empty.count());
+        assertTrue(empty.first(5).isEmpty());
+    }
+}
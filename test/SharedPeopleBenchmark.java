@@ -0,0 +1,74 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the comparisons/sec of the shared-people id merge with the name-set
+ * intersection validateGuess used before it, and reports what each allocates
+ * per comparison. It only reports: timings depend on the machine, so it is
+ * run by hand rather than as part of the unit tests.
+ */
+public class SharedPeopleBenchmark {
+
+    /**
+     * @param args the CSV file, and optionally the number of timed passes
+     */
+    public static void main(String[] args) {
+        String filePath = args.length > 0 ? args[0] : "cleaned_imdb_final.csv";
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Database database = new Database();
+        database.load(filePath);
+        SharedPeople shared = new SharedPeople(database.getPersonDictionary());
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // warm up both paths before timing
+        long legacyFound = 0;
+        long found = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            legacyFound += legacyPass(database);
+            found += mergePass(database, shared);
+        }
+
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            legacyFound += legacyPass(database);
+        }
+        double legacySeconds = (System.nanoTime() - start) / 1e9;
+        long legacyBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+        allocated = threads.getThreadAllocatedBytes(thread);
+        start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            found += mergePass(database, shared);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+        long comparisons = (long) (database.getMovieCount() - 1) * passes;
+        System.out.printf("set intersection: %.0f comparisons/sec, %.1f bytes/comparison%n",
+                comparisons / legacySeconds, (double) legacyBytes / comparisons);
+        System.out.printf("id merge:         %.0f comparisons/sec, %.1f bytes/comparison%n",
+                comparisons / seconds, (double) bytes / comparisons);
+        // the two agree, and printing the totals keeps the JIT from dropping either loop
+        System.out.printf("speedup: %.1fx (shared people %d, %d)%n", legacySeconds / seconds, legacyFound, found);
+    }
+
+    /**
+     * Each movie against its neighbour in title order, which mixes hits and misses.
+     */
+    private static long legacyPass(Database database) {
+        long found = 0;
+        for (int m = 1; m < database.getMovieCount(); m++) {
+            found += SharedPeopleTest.legacyConnections(database.getMovie(m), database.getMovie(m - 1)).size();
+        }
+        return found;
+    }
+
+    private static long mergePass(Database database, SharedPeople shared) {
+        long found = 0;
+        for (int m = 1; m < database.getMovieCount(); m++) {
+            found += shared.compute(database.getMovie(m), database.getMovie(m - 1));
+        }
+        return found;
+    }
+}
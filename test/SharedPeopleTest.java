@@ -0,0 +1,92 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SharedPeopleTest {
+
+    private static Database database;
+
+    @BeforeClass
+    public static void loadDatabase() {
+        database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+    }
+
+    /**
+     * The connection check validateGuess used before SharedPeople, with the
+     * union set getAllPeople used to build on every call.
+     */
+    static Set<String> legacyConnections(Movie movie1, Movie movie2) {
+        Set<String> intersectionSet = legacyAllPeople(movie1);
+        intersectionSet.retainAll(legacyAllPeople(movie2));
+        return intersectionSet;
+    }
+
+    private static Set<String> legacyAllPeople(Movie movie) {
+        Set<String> result = new java.util.HashSet<>();
+        for (int role = 0; role < Movie.ROLE_NAMES.length; role++) {
+            result.addAll(movie.getPeopleInRole(role));
+        }
+        return result;
+    }
+
+    @Test
+    public void testMatchesSetIntersection() {
+        SharedPeople shared = new SharedPeople(database.getPersonDictionary());
+        for (int a = 0; a < database.getMovieCount(); a += 13) {
+            Movie movieA = database.getMovie(a);
+            for (int b = 0; b < database.getMovieCount(); b += 97) {
+                Movie movieB = database.getMovie(b);
+                shared.compute(movieA, movieB);
+                assertEquals(legacyConnections(movieA, movieB), shared.snapshot());
+                for (int i = 1; i < shared.size(); i++) {
+                    assertTrue(shared.get(i - 1) < shared.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPersonInSeveralRolesCountsOnce() {
+        Movie first = new Movie("First", 2000, Set.of(), Set.of("Clint Eastwood"), Set.of("Clint Eastwood"),
+                Set.of(), Set.of(), Set.of("Clint Eastwood"));
+        Movie second = new Movie("Second", 2001, Set.of(), Set.of("Clint Eastwood"), Set.of("Gene Hackman"),
+                Set.of(), Set.of(), Set.of());
+        SharedPeople shared = new SharedPeople(first.getPersonDictionary());
+        assertEquals(1, shared.compute(first, second));
+        Set<String> kept = shared.snapshot();
+        assertEquals(Set.of("Clint Eastwood"), kept);
+        assertEquals("Clint Eastwood", shared.nameAt(0));
+        shared.remove(0);
+        assertEquals(0, shared.size());
+        // the snapshot is a copy, so reusing the buffer leaves it alone
+        assertEquals(Set.of("Clint Eastwood"), kept);
+    }
+
+    @Test
+    public void testSteadyStateAllocatesNothing() {
+        java.lang.management.ThreadMXBean threads = java.lang.management.ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+
+        SharedPeople shared = new SharedPeople(database.getPersonDictionary());
+        int count = database.getMovieCount();
+        long found = 0;
+        // the first pass grows the buffer and warms up the JIT
+        for (int m = 1; m < count; m++) {
+            found += shared.compute(database.getMovie(m), database.getMovie(m - 1));
+        }
+        long before = allocations.getThreadAllocatedBytes(thread);
+        for (int m = 1; m < count; m++) {
+            found += shared.compute(database.getMovie(m), database.getMovie(m - 1));
+        }
+        long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+        assertTrue(found > 0);
+        // allow for the measurement itself, not for anything per comparison
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+}
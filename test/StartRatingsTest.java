@@ -0,0 +1,85 @@
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StartRatingsTest {
+
+    private static Database database;
+    private static StartRatings ratings;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void rateMovies() {
+        database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        ratings = StartRatings.compute(database, StartRatings.DEFAULT_DEPTH);
+    }
+
+    @Test
+    public void testReachMatchesTheGraph() {
+        ConnectionGraph graph = database.getConnectionGraph();
+        for (int id = 0; id < database.getMovieCount(); id += 97) {
+            assertEquals(graph.degree(id), ratings.getBranchingFactor(id));
+            Set<Integer> reach = new HashSet<>();
+            for (int first : graph.neighbours(id)) {
+                reach.add(first);
+                for (int second : graph.neighbours(first)) {
+                    reach.add(second);
+                }
+            }
+            reach.remove(id);
+            assertEquals(reach.size(), ratings.getTwoHopReach(id));
+        }
+    }
+
+    @Test
+    public void testOutcomesOfDeadEnds() {
+        ConnectionGraph graph = database.getConnectionGraph();
+        for (int id = 0; id < database.getMovieCount(); id++) {
+            if (graph.degree(id) == 0) {
+                // the first player cannot move at all
+                assertEquals(StartRatings.SECOND_PLAYER_WINS, ratings.getOutcome(id));
+            } else if (graph.degree(id) == 1 && graph.degree(graph.neighbours(id)[0]) == 1) {
+                // the only move leaves the second player stuck
+                assertEquals(StartRatings.FIRST_PLAYER_WINS, ratings.getOutcome(id));
+            }
+            if (ratings.isFairStart(id)) {
+                assertEquals(StartRatings.UNDECIDED, ratings.getOutcome(id));
+            }
+        }
+        Movie start = ratings.randomFairStart(database, new Random(18));
+        assertTrue(ratings.isFairStart(database.getMovieId(start)));
+    }
+
+    @Test
+    public void testReusedPositionsMatchFreshOnes() {
+        // workers restart one position from movie to movie; solving from scratch must agree
+        for (int id = 0; id < database.getMovieCount(); id += 37) {
+            ComputerPlayer.Position fresh = ComputerPlayer.Position.start(database, id);
+            assertEquals(fresh.solve(ratings.getDepth(), StartRatings.NODE_LIMIT), ratings.getOutcome(id));
+        }
+    }
+
+    @Test
+    public void testCacheIsKeyedByHashAndDepth() throws Exception {
+        Path cache = folder.getRoot().toPath().resolve("movies.ratings");
+        ratings.write(cache, 42L);
+        StartRatings read = StartRatings.read(cache, 42L, ratings.getDepth(), database.getMovieCount());
+        assertNotNull(read);
+        for (int id = 0; id < database.getMovieCount(); id++) {
+            assertEquals(ratings.getBranchingFactor(id), read.getBranchingFactor(id));
+            assertEquals(ratings.getTwoHopReach(id), read.getTwoHopReach(id));
+            assertEquals(ratings.getOutcome(id), read.getOutcome(id));
+        }
+        assertNull(StartRatings.read(cache, 43L, ratings.getDepth(), database.getMovieCount()));
+        assertNull(StartRatings.read(cache, 42L, ratings.getDepth() + 1, database.getMovieCount()));
+    }
+}
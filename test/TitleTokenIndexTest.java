@@ -0,0 +1,75 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TitleTokenIndexTest {
+
+    private static TitleTrie trie;
+    private static TitleTokenIndex index;
+
+    @BeforeClass
+    public static void loadTitles() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        trie = new TitleTrie(database.getMovieNameSet());
+        index = new TitleTokenIndex(trie);
+    }
+
+    /**
+     * What checking every title's words in turn would suggest.
+     */
+    private static List<String> scan(String query, int limit) {
+        String lower = query.toLowerCase();
+        List<String> typed = TitleTokenIndex.words(lower);
+        boolean partial = !typed.isEmpty() && Character.isLetterOrDigit(lower.charAt(lower.length() - 1));
+        return trie.titles().stream().filter(title -> {
+            List<String> words = TitleTokenIndex.words(title);
+            for (int k = 0; k < typed.size(); k++) {
+                String word = typed.get(k);
+                boolean last = partial && k == typed.size() - 1;
+                if (last ? words.stream().noneMatch(w -> w.startsWith(word)) : !words.contains(word)) {
+                    return false;
+                }
+            }
+            return !typed.isEmpty();
+        }).limit(limit).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testMatchesAScanOverEveryTitle() {
+        Random rng = new Random(23);
+        for (int i = 0; i < 300; i++) {
+            List<String> words = TitleTokenIndex.words(trie.title(rng.nextInt(trie.size())));
+            // a few words from somewhere in the title, the last one possibly cut short
+            int first = rng.nextInt(words.size());
+            int last = Math.min(words.size(), first + 1 + rng.nextInt(3));
+            StringBuilder query = new StringBuilder(String.join(" ", words.subList(first, last)));
+            switch (rng.nextInt(3)) {
+                case 0 -> query.setLength(query.length() - rng.nextInt(words.get(last - 1).length()));
+                case 1 -> query.append(' ');
+                default -> { }
+            }
+            assertEquals(query.toString(), scan(query.toString(), 5), index.complete(query, 5));
+        }
+        for (String query : List.of("t", "the", "the ", "zzz", "dark zzz", "of the", "2012", "  ")) {
+            assertEquals(query, scan(query, 5), index.complete(query, 5));
+        }
+    }
+
+    @Test
+    public void testFindsTitlesByAnyOfTheirWords() {
+        TitleTokenIndex small = new TitleTokenIndex(new TitleTrie(List.of(
+                "The Dark Knight (2008)", "The Dark Knight Rises (2012)", "Knight and Day (2010)", "Dark Shadows (2012)")));
+        assertEquals(List.of("the dark knight (2008)", "the dark knight rises (2012)"), small.complete("dark knight", 5));
+        assertEquals(List.of("the dark knight rises (2012)"), small.complete("Knight Ris", 5));
+        assertEquals(List.of("dark shadows (2012)", "the dark knight rises (2012)"), small.complete("2012", 5));
+        assertEquals(List.of("knight and day (2010)"), small.complete("knight ", 1));
+        assertTrue(small.complete("dark knight x", 5).isEmpty());
+        assertTrue(small.complete("ark", 5).isEmpty());
+        assertTrue(new TitleTokenIndex(new TitleTrie(List.of())).complete("dark", 5).isEmpty());
+    }
+}
@@ -0,0 +1,153 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TitleTrieTest {
+
+    private static Set<String> titles;
+
+    @BeforeClass
+    public static void loadTitles() {
+        Database database = new Database();
+        database.loadFromCSV("cleaned_imdb_final.csv");
+        titles = database.getMovieNameSet();
+    }
+
+    /**
+     * What a linear scan over the sorted, lower-cased titles would suggest.
+     */
+    private static List<String> scan(List<String> sorted, String prefix, int limit) {
+        String lower = prefix.toLowerCase();
+        return sorted.stream().filter(title -> title.startsWith(lower)).limit(limit).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testMatchesALinearScan() {
+        TitleTrie trie = new TitleTrie(titles);
+        List<String> sorted = titles.stream().map(String::toLowerCase).distinct().sorted().collect(Collectors.toList());
+        assertEquals(sorted, trie.titles());
+
+        Random rng = new Random(20);
+        for (int i = 0; i < 2000; i++) {
+            String title = sorted.get(rng.nextInt(sorted.size()));
+            String prefix = title.substring(0, 1 + rng.nextInt(title.length()));
+            if (rng.nextBoolean()) {
+                prefix = prefix.toUpperCase();
+            }
+            assertEquals(scan(sorted, prefix, 5), trie.complete(prefix, 5));
+        }
+        for (String miss : List.of("zzzz", "the zzz", "titanic (1997)x", "é")) {
+            assertEquals(scan(sorted, miss, 5), trie.complete(miss, 5));
+        }
+    }
+
+    @Test
+    public void testTitlesThatPrefixOtherTitles() {
+        TitleTrie trie = new TitleTrie(List.of("Up", "Up In The Air", "Upgrade", "up"));
+        assertEquals(List.of("up", "up in the air", "upgrade"), trie.complete("U", 5));
+        assertEquals(List.of("up", "up in the air"), trie.complete("up", 2));
+        assertEquals(List.of("up in the air"), trie.complete("up ", 5));
+        assertTrue(trie.complete("upx", 5).isEmpty());
+        assertTrue(new TitleTrie(List.of()).complete("a", 5).isEmpty());
+    }
+
+    @Test
+    public void testLargeCatalogMatchesALinearScan() {
+        List<String> big = new ArrayList<>(titles);
+        for (int copy = 0; copy < 100; copy++) {
+            for (String title : titles) {
+                big.add(title + " #" + copy);
+            }
+        }
+        TitleTrie large = new TitleTrie(big);
+        List<String> sorted = big.stream().map(String::toLowerCase).distinct().sorted().collect(Collectors.toList());
+        assertEquals(sorted.size(), large.size());
+        for (String prefix : List.of("t", "th", "the", "the d", "the dark", "the dark k", "s", "st", "sta", "star w")) {
+            assertEquals(scan(sorted, prefix, 5), large.complete(prefix, 5));
+        }
+    }
+
+    /**
+     * The fewest edits turning the query into some prefix of the title.
+     */
+    private static int prefixDistance(String query, String title) {
+        int[] row = new int[query.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        int best = row[query.length()];
+        for (int i = 0; i < title.length(); i++) {
+            int[] next = new int[row.length];
+            next[0] = i + 1;
+            for (int j = 1; j < row.length; j++) {
+                int substitute = row[j - 1] + (query.charAt(j - 1) == title.charAt(i) ? 0 : 1);
+                next[j] = Math.min(substitute, Math.min(row[j], next[j - 1]) + 1);
+            }
+            row = next;
+            best = Math.min(best, row[query.length()]);
+        }
+        return best;
+    }
+
+    @Test
+    public void testFuzzyMatchesABruteForceScan() {
+        TitleTrie trie = new TitleTrie(titles);
+        List<String> sorted = trie.titles();
+        Random rng = new Random(22);
+        String letters = "abcdefghijklmnopqrstuvwxyz ";
+        for (int i = 0; i < 200; i++) {
+            String title = sorted.get(rng.nextInt(sorted.size()));
+            StringBuilder typed = new StringBuilder(title.substring(0, Math.min(title.length(), 3 + rng.nextInt(8))));
+            // one random slip: a wrong, missing or extra character
+            int at = rng.nextInt(typed.length());
+            char c = letters.charAt(rng.nextInt(letters.length()));
+            switch (rng.nextInt(3)) {
+                case 0 -> typed.setCharAt(at, c);
+                case 1 -> typed.deleteCharAt(at);
+                default -> typed.insert(at, c);
+            }
+            String query = typed.toString();
+            int maxEdits = 1 + rng.nextInt(2);
+            List<String> expected = sorted.stream()
+                    .filter(t -> prefixDistance(query, t) <= maxEdits)
+                    .sorted(Comparator.comparingInt((String t) -> prefixDistance(query, t)).thenComparing(t -> t))
+                    .limit(5)
+                    .collect(Collectors.toList());
+            assertEquals(query, expected, trie.completeFuzzy(query, maxEdits, 5, Long.MAX_VALUE / 2));
+        }
+    }
+
+    @Test
+    public void testFuzzyFindsMistypedTitles() {
+        TitleTrie trie = new TitleTrie(List.of("The Dark Knight", "The Godfather", "Titanic", "Toy Story"));
+        assertEquals(List.of("the dark knight"), trie.completeFuzzy("teh dark", 2, 5, Long.MAX_VALUE / 2));
+        assertEquals(List.of("titanic"), trie.completeFuzzy("titanc", 1, 5, Long.MAX_VALUE / 2));
+        // exact matches come before near misses
+        assertEquals(List.of("up", "upgrade", "us"),
+                new TitleTrie(List.of("Us", "Upgrade", "Up")).completeFuzzy("up", 1, 5, Long.MAX_VALUE / 2));
+        assertTrue(trie.completeFuzzy("xxxxxx", 2, 5, Long.MAX_VALUE / 2).isEmpty());
+        assertTrue(new TitleTrie(List.of()).completeFuzzy("titanic", 2, 5, 1_000_000).isEmpty());
+    }
+
+    @Test
+    public void testFuzzyOutOfTimeReturnsWhatItFoundSoFar() {
+        List<String> big = new ArrayList<>();
+        for (int copy = 0; big.size() < 1_000_000; copy++) {
+            for (String title : titles) {
+                big.add(title + " #" + copy);
+            }
+        }
+        TitleTrie trie = new TitleTrie(big);
+        for (String query : List.of("teh dark knight", "stra wars", "godfahter", "xqzvwkjp", "lord of teh")) {
+            List<String> all = trie.completeFuzzy(query, 2, 5, Long.MAX_VALUE / 2);
+            // a search with no time gives up at its first look at the clock
+            List<String> cut = trie.completeFuzzy(query, 2, 5, 0);
+            assertEquals(query, all.subList(0, cut.size()), cut);
+        }
+        assertFalse(trie.completeFuzzy("teh dark knight", 2, 5, Long.MAX_VALUE / 2).isEmpty());
+    }
+}